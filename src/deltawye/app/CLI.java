@@ -4,8 +4,17 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 import deltawye.lib.*;
 import deltawye.lib.SteinitzGruenbaum.LensTriangleSelectionStrategy;
@@ -21,7 +30,8 @@ public class CLI {
     private static final String usage = String.join(System.getProperty("line.separator"),
             "DeltaWye version " + Meta.getVersionString(), "", "Usage:", "",
             "  $ java -jar deltawye.jar <algorithm> <filename>",
-            "  $ java -jar deltawye.jar batch <count> <algorithm> <filename>", "",
+            "  $ java -jar deltawye.jar batch [--threads <n>] <count> <algorithm> <filename>",
+            "",
             "where:", "", "  <algorithm>   = steinitz <sg-strategy>",
             "                | feoprovan <fp-start> <fp-strategy>",
             "                | temperature <tr-strategy>",
@@ -30,6 +40,7 @@ public class CLI {
             "  <fp-strategy> = random | minlabel | maxlabel | mindegree | maxdegree",
             "  <tr-strategy> = random | short | long",
             "  <count>       = <number of requested runs of the algorithm as integer>",
+            "  <n>           = <number of concurrent runs as integer (default: 1)>",
             "  <filename>    = <path to graph data textfile in adjacency list format>",
             "", "Example:", "",
             "  $ java -jar deltawye.jar steinitz random data/icosahedron.txt", "");
@@ -183,33 +194,13 @@ public class CLI {
             if ("help".equals(action)) {
                 printUsage();
             } else if ("steinitz".equals(action) && args.length == 3) {
-                singleRun(parseSteinitz(args[1], args[2]));
+                singleRun(parseSteinitz(args[1], args[2]).get());
             } else if ("feoprovan".equals(action) && args.length == 4) {
-                singleRun(parseFeoProvan(args[1], args[2], args[3]));
+                singleRun(parseFeoProvan(args[1], args[2], args[3]).get());
             } else if ("temperature".equals(action) && args.length == 3) {
-                singleRun(parseTemperature(args[1], args[2]));
-            } else if ("batch".equals(action) && args.length > 4) {
-                int count = 0;
-                try {
-                    count = Integer.parseInt(args[1]);
-                    if (count < 1) {
-                        throw new NumberFormatException("Count must be positive.");
-                    }
-                } catch (NumberFormatException e) {
-                    System.err.println(e);
-                    abort();
-                }
-                action = args[2];
-                if ("steinitz".equals(action) && args.length == 5) {
-                    batchRun(parseSteinitz(args[3], args[4]), count);
-                } else if ("feoprovan".equals(action) && args.length == 6) {
-                    batchRun(parseFeoProvan(args[3], args[4], args[5]), count);
-                } else if ("temperature".equals(action) && args.length == 5) {
-                    batchRun(parseTemperature(args[3], args[4]), count);
-                } else {
-                    System.err.println("Invalid arguments.");
-                    abort();
-                }
+                singleRun(parseTemperature(args[1], args[2]).get());
+            } else if ("batch".equals(action)) {
+                parseBatch(args);
             } else {
                 System.err.println("Invalid arguments.");
                 abort();
@@ -220,6 +211,43 @@ public class CLI {
         System.exit(0);
     }
 
+    /**
+     * Parse the arguments of a batch run and run the requested algorithm.
+     *
+     * <p>
+     * The arguments consist of the action "batch", an optional
+     * "--threads &lt;n&gt;" option, the count and the arguments of a single run.
+     * Exits the program if the arguments cannot be parsed.
+     *
+     * @param args
+     *            command-line arguments, starting with the action
+     */
+    private static void parseBatch(String[] args) {
+        int next = 1;
+        int threads = 1;
+        if (args.length > next + 1 && "--threads".equals(args[next])) {
+            threads = parsePositiveInt(args[next + 1], "Number of threads");
+            next += 2;
+        }
+        if (args.length < next + 2) {
+            System.err.println("Invalid arguments.");
+            abort();
+        }
+        int count = parsePositiveInt(args[next], "Count");
+        String algorithm = args[next + 1];
+        String[] params = Arrays.copyOfRange(args, next + 2, args.length);
+        if ("steinitz".equals(algorithm) && params.length == 2) {
+            batchRun(parseSteinitz(params[0], params[1]), count, threads);
+        } else if ("feoprovan".equals(algorithm) && params.length == 3) {
+            batchRun(parseFeoProvan(params[0], params[1], params[2]), count, threads);
+        } else if ("temperature".equals(algorithm) && params.length == 2) {
+            batchRun(parseTemperature(params[0], params[1]), count, threads);
+        } else {
+            System.err.println("Invalid arguments.");
+            abort();
+        }
+    }
+
     /**
      * Run the specified graph transformation algorithm once. Report the details
      * of the found reduction sequence.
@@ -240,47 +268,131 @@ public class CLI {
                 + algorithm.wyeDeltaCount(sequence));
     }
 
+    /**
+     * Parse a positive integer argument.
+     *
+     * <p>
+     * Exits the program if argument cannot be parsed.
+     *
+     * @param input
+     *            command-line argument string
+     * @param name
+     *            name of the argument for error messages
+     * @return the parsed number
+     */
+    private static int parsePositiveInt(String input, String name) {
+        int number = 0;
+        try {
+            number = Integer.parseInt(input);
+            if (number < 1) {
+                throw new NumberFormatException(name + " must be positive.");
+            }
+        } catch (NumberFormatException e) {
+            System.err.println(e);
+            abort();
+        }
+        return number;
+    }
+
     /**
      * Run the specified graph reduction algorithm the specified number of
      * times. Report the length of each found reduction sequence and a short
      * summary statistics.
      *
-     * @param algorithm
-     *            the algorithm to run
+     * <p>
+     * If more than one thread is requested, the runs are executed concurrently
+     * on independent algorithm instances (at most one per thread), and each run
+     * is reported as soon as it completes. The instance that describes the batch
+     * in the header is the first one to be reused by the runs.
+     *
+     * @param algorithms
+     *            supplier of instances of the algorithm to run
      * @param count
      *            the number of times the algorithm should be executed
+     * @param threads
+     *            the number of concurrent runs
      */
-    private static void batchRun(GraphTransformationAlgorithm algorithm, int count) {
+    static void batchRun(Supplier<GraphTransformationAlgorithm> algorithms, int count,
+            int threads) {
+        GraphTransformationAlgorithm algorithm = algorithms.get();
         System.out.println(algorithm);
-        System.out.println("Batch run: " + count + " iterations.");
-        List<Integer> nativeResults = new ArrayList<>();
-        List<Integer> normalizedResults = new ArrayList<>();
-        long nativeTotal = 0;
-        long normalizedTotal = 0;
+        System.out.println("Batch run: " + count + " iterations"
+                + (threads > 1 ? " on " + threads + " threads." : "."));
+        LongAdder nativeTotal = new LongAdder();
+        LongAdder normalizedTotal = new LongAdder();
+        LongAccumulator nativeMin = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        LongAccumulator nativeMax = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        LongAccumulator normalizedMin = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        LongAccumulator normalizedMax = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        // idle instances; a run takes one, or builds one if all are busy
+        Queue<GraphTransformationAlgorithm> instances = new ConcurrentLinkedQueue<>();
+        instances.add(algorithm);
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads)
+                : null;
+        List<Future<?>> runs = new ArrayList<>();
         for (int i = 1; i <= count; i++) {
-            algorithm.reset();
-            List<String> sequence = algorithm.run(false);
-            int nativeSteps = sequence.size();
-            int normalizedSteps = algorithm.normalizedLength(sequence);
-            System.out.println("Run " + i + " completed after " + nativeSteps
-                    + " steps with " + algorithm.deltaWyeCount(sequence)
-                    + " Delta-Wye and " + algorithm.wyeDeltaCount(sequence)
-                    + " Wye-Delta transformations (normalized length: " + normalizedSteps
-                    + ").");
-            nativeResults.add(nativeSteps);
-            nativeTotal += nativeSteps;
-            normalizedResults.add(normalizedSteps);
-            normalizedTotal += normalizedSteps;
+            int run = i;
+            Runnable task = () -> {
+                GraphTransformationAlgorithm instance = instances.poll();
+                if (instance == null) {
+                    instance = algorithms.get();
+                }
+                instance.reset();
+                List<String> sequence = instance.run(false);
+                int nativeSteps = sequence.size();
+                int normalizedSteps = instance.normalizedLength(sequence);
+                System.out.println("Run " + run + " completed after " + nativeSteps
+                        + " steps with " + instance.deltaWyeCount(sequence)
+                        + " Delta-Wye and " + instance.wyeDeltaCount(sequence)
+                        + " Wye-Delta transformations (normalized length: "
+                        + normalizedSteps + ").");
+                nativeTotal.add(nativeSteps);
+                nativeMin.accumulate(nativeSteps);
+                nativeMax.accumulate(nativeSteps);
+                normalizedTotal.add(normalizedSteps);
+                normalizedMin.accumulate(normalizedSteps);
+                normalizedMax.accumulate(normalizedSteps);
+                instances.add(instance);
+            };
+            if (executor == null) {
+                task.run();
+            } else {
+                runs.add(executor.submit(task));
+            }
+        }
+        if (executor != null) {
+            try {
+                for (Future<?> run : runs) {
+                    run.get();
+                }
+            } catch (ExecutionException e) {
+                // fail like a sequential run: propagate the exception of the run
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+                throw new IllegalStateException("Batch run interrupted.", e);
+            } finally {
+                executor.shutdownNow();
+            }
         }
         System.out.println("");
         System.out.println("RESULTS:");
-        System.out.println("  Shortest sequence: " + Collections.min(nativeResults));
-        System.out.println("  Longest sequence: " + Collections.max(nativeResults));
-        System.out.printf("  Average length: %.2f%n%n", (double) nativeTotal / count);
+        System.out.println("  Shortest sequence: " + nativeMin.get());
+        System.out.println("  Longest sequence: " + nativeMax.get());
+        System.out.printf("  Average length: %.2f%n%n", (double) nativeTotal.sum() / count);
         System.out.println("NORMALIZED RESULTS:");
-        System.out.println("  Shortest sequence: " + Collections.min(normalizedResults));
-        System.out.println("  Longest sequence: " + Collections.max(normalizedResults));
-        System.out.printf("  Average length: %.2f%n%n", (double) normalizedTotal / count);
+        System.out.println("  Shortest sequence: " + normalizedMin.get());
+        System.out.println("  Longest sequence: " + normalizedMax.get());
+        System.out.printf("  Average length: %.2f%n%n",
+                (double) normalizedTotal.sum() / count);
     }
 
     /**
@@ -291,13 +403,13 @@ public class CLI {
      *            string representation of the strategy to use
      * @param filename
      *            path to the graph data
-     * @return graph transformation algorithm instance
+     * @return supplier of graph transformation algorithm instances
      */
-    private static GraphTransformationAlgorithm parseSteinitz(String strategyString,
-            String filename) {
+    private static Supplier<GraphTransformationAlgorithm> parseSteinitz(
+            String strategyString, String filename) {
         LensTriangleSelectionStrategy strategy = parseSgStrategy(strategyString);
         AtomicPlaneGraph graph = readGraph(filename);
-        return new SteinitzGruenbaum(graph, strategy);
+        return () -> new SteinitzGruenbaum(graph, strategy);
     }
 
     /**
@@ -310,14 +422,14 @@ public class CLI {
      *            string representation of the transformation selection strategy
      * @param filename
      *            path to the graph data
-     * @return graph transformation algorithm instance
+     * @return supplier of graph transformation algorithm instances
      */
-    private static GraphTransformationAlgorithm parseFeoProvan(String startString,
-            String strategyString, String filename) {
+    private static Supplier<GraphTransformationAlgorithm> parseFeoProvan(
+            String startString, String strategyString, String filename) {
         FeoProvan.StartVertexStrategy start = parseFpStart(startString);
         FeoProvan.TransformSelectionStrategy strategy = parseFpStrategy(strategyString);
         AtomicPlaneGraph graph = readGraph(filename);
-        return new FeoProvan(graph, start, strategy);
+        return () -> new FeoProvan(graph, start, strategy);
     }
 
     /**
@@ -328,18 +440,23 @@ public class CLI {
      *            string representation of the transformation selection strategy
      * @param filename
      *            path to the graph data
-     * @return graph transformation algorithm instance
+     * @return supplier of graph transformation algorithm instances
      */
-    private static GraphTransformationAlgorithm parseTemperature(String strategyString,
-            String filename) {
+    private static Supplier<GraphTransformationAlgorithm> parseTemperature(
+            String strategyString, String filename) {
         TemperatureReduction.Strategy strategy = parseTemperatureStrategy(strategyString);
         AtomicPlaneGraph graph = readGraph(filename);
-        return new TemperatureReduction(graph, strategy);
+        return () -> new TemperatureReduction(graph, strategy);
     }
 
     /**
      * Read graph data in adjacency list format from textfile.
      *
+     * <p>
+     * The returned graph is a fresh copy of the parsed graph. Its faces are
+     * already known, so algorithm instances on different threads can share it
+     * as long as they only read it.
+     *
      * @param filename
      *            path to the graph data
      * @return graph
@@ -348,7 +465,7 @@ public class CLI {
         AtomicPlaneGraph graph = null;
         try {
             Path file = Paths.get(filename);
-            graph = AtomicPlaneGraph.readAdjacencyList(file);
+            graph = new AtomicPlaneGraph(AtomicPlaneGraph.readAdjacencyList(file));
         } catch (IOException e) {
             System.err.println(
                     "Error: Could not read graph data from '" + filename + "'.");
@@ -31,7 +31,51 @@ public class AtomicPlaneGraph extends PlaneGraph<AtomicVertex> {
      *            original graph to be copied
      */
     public AtomicPlaneGraph(AtomicPlaneGraph original) {
-        this(original.getIncidenceMap());
+        this(original, original.getBackend());
+    }
+
+    /**
+     * Return a copy of the specified AtomicPlaneGraph that uses the specified
+     * storage backend.
+     *
+     * @param original
+     *            original graph to be copied
+     * @param backend
+     *            storage backend of the copy
+     */
+    public AtomicPlaneGraph(AtomicPlaneGraph original, Backend backend) {
+        super(original, backend);
+    }
+
+    /**
+     * Create AtomicPlaneGraph from a rotation system.
+     *
+     * @param rotationSystem
+     *            rotation system, used directly (not copied)
+     * @throws IllegalArgumentException
+     *             if the rotation system is invalid
+     */
+    AtomicPlaneGraph(RotationSystem<AtomicVertex> rotationSystem) {
+        super(rotationSystem);
+    }
+
+    /**
+     * Create a snapshot of the specified AtomicPlaneGraph.
+     *
+     * @param original
+     *            original graph
+     * @param rotationSystem
+     *            independent copy of the rotation system of the original,
+     *            used directly (not copied)
+     */
+    private AtomicPlaneGraph(AtomicPlaneGraph original,
+            RotationSystem<AtomicVertex> rotationSystem) {
+        super(original, rotationSystem);
+    }
+
+    @Override
+    public AtomicPlaneGraph snapshot() {
+        return new AtomicPlaneGraph(this, copyRotationSystem(getBackend()));
     }
 
     /**
@@ -92,8 +136,10 @@ public class AtomicPlaneGraph extends PlaneGraph<AtomicVertex> {
      *             if input file cannot be read
      */
     public static AtomicPlaneGraph readAdjacencyList(Path file) throws IOException {
+        InternTable<AtomicVertex> vertices = new InternTable<>();
         List<List<AtomicVertex>> rawList = Files.lines(file)
-                                                .map(AtomicPlaneGraph::processAdjacencyLine)
+                                                .map(line -> processAdjacencyLine(line,
+                                                        vertices))
                                                 .collect(Collectors.toList());
         Map<AtomicVertex, List<AtomicVertex>> adjacencyList = new HashMap<>();
         for (List<AtomicVertex> line : rawList) {
@@ -119,11 +165,12 @@ public class AtomicPlaneGraph extends PlaneGraph<AtomicVertex> {
      */
     public static AtomicPlaneGraph readAdjacencyList(int[][] matrix) {
         Map<AtomicVertex, List<AtomicVertex>> adjacencyList = new HashMap<>();
+        InternTable<AtomicVertex> vertices = new InternTable<>();
         for (int i = 0; i < matrix.length; i++) {
-            AtomicVertex vertex = new AtomicVertex(matrix[i][0]);
+            AtomicVertex vertex = vertices.intern(matrix[i][0], AtomicVertex::new);
             List<AtomicVertex> neighbors = new ArrayList<>();
             for (int j = 1; j < matrix[i].length; j++) {
-                neighbors.add(new AtomicVertex(matrix[i][j]));
+                neighbors.add(vertices.intern(matrix[i][j], AtomicVertex::new));
             }
             adjacencyList.put(vertex, neighbors);
         }
@@ -189,13 +236,16 @@ public class AtomicPlaneGraph extends PlaneGraph<AtomicVertex> {
      *
      * @param s
      *            input line
+     * @param vertices
+     *            canonical vertices of the graph that is read
      * @return parsed adjacency list entry
      */
-    private static List<AtomicVertex> processAdjacencyLine(String s) {
+    private static List<AtomicVertex> processAdjacencyLine(String s,
+            InternTable<AtomicVertex> vertices) {
         return Arrays.asList(s.split("\\s"))
                      .stream()
                      .map(Integer::parseInt)
-                     .map(AtomicVertex::new)
+                     .map(id -> vertices.intern(id, AtomicVertex::new))
                      .collect(Collectors.toList());
     }
 
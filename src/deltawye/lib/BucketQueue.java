@@ -0,0 +1,186 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * A collection of elements that are grouped into buckets by an integer key.
+ *
+ * <p>
+ * Elements can be added and removed in time logarithmic in the number of
+ * distinct keys, and every bucket supports constant-time access by index, so
+ * that a uniformly random element of the least or greatest bucket can be picked
+ * without building a list.
+ *
+ * <p>
+ * Elements are identified by {@link Object#equals(Object)}; each element can be
+ * contained at most once.
+ *
+ * @param <E>
+ *            the type of elements
+ */
+class BucketQueue<E> {
+
+    /**
+     * The non-empty buckets, by key.
+     */
+    private final TreeMap<Integer, List<E>> buckets;
+
+    /**
+     * Mapping from elements to their keys.
+     */
+    private final Map<E, Integer> keys;
+
+    /**
+     * Mapping from elements to their positions in their buckets.
+     */
+    private final Map<E, Integer> positions;
+
+    /**
+     * Create an empty bucket queue.
+     */
+    BucketQueue() {
+        buckets = new TreeMap<>();
+        keys = new HashMap<>();
+        positions = new HashMap<>();
+    }
+
+    /**
+     * Return the number of elements.
+     *
+     * @return number of elements
+     */
+    int size() {
+        return keys.size();
+    }
+
+    /**
+     * Return whether the bucket queue is empty.
+     *
+     * @return true if there are no elements
+     */
+    boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Return whether the specified element is contained.
+     *
+     * @param e
+     *            some element
+     * @return true if the element is contained
+     */
+    boolean contains(Object e) {
+        return keys.containsKey(e);
+    }
+
+    /**
+     * Add an element with the specified key.
+     *
+     * @param e
+     *            the new element
+     * @param key
+     *            the key of the element
+     * @throws IllegalArgumentException
+     *             if the element is already contained
+     */
+    void add(E e, int key) {
+        if (keys.containsKey(e)) {
+            throw new IllegalArgumentException("Element already in queue: " + e);
+        }
+        List<E> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>());
+        bucket.add(e);
+        keys.put(e, key);
+        positions.put(e, bucket.size() - 1);
+    }
+
+    /**
+     * Remove the specified element.
+     *
+     * @param e
+     *            the element to remove
+     * @return true if the element was contained
+     */
+    boolean remove(Object e) {
+        Integer key = keys.remove(e);
+        if (key == null) {
+            return false;
+        }
+        int pos = positions.remove(e);
+        List<E> bucket = buckets.get(key);
+        E last = bucket.remove(bucket.size() - 1);
+        if (pos < bucket.size()) {
+            bucket.set(pos, last);
+            positions.put(last, pos);
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Return the least key of all elements.
+     *
+     * @return least key
+     * @throws NoSuchElementException
+     *             if the bucket queue is empty
+     */
+    int minKey() {
+        return buckets.firstKey();
+    }
+
+    /**
+     * Return the greatest key of all elements.
+     *
+     * @return greatest key
+     * @throws NoSuchElementException
+     *             if the bucket queue is empty
+     */
+    int maxKey() {
+        return buckets.lastKey();
+    }
+
+    /**
+     * Return a read-only view of the elements with the specified key.
+     *
+     * <p>
+     * The order of the elements in a bucket is unspecified.
+     *
+     * @param key
+     *            some key
+     * @return list of elements, empty if there are none
+     */
+    List<E> bucket(int key) {
+        List<E> bucket = buckets.get(key);
+        return bucket == null ? Collections.emptyList()
+                : Collections.unmodifiableList(bucket);
+    }
+
+    /**
+     * Return the element at the specified position, counting through the
+     * buckets in the order of their keys.
+     *
+     * <p>
+     * The order within each bucket is unspecified, but this can be used for
+     * picking a uniformly random element.
+     *
+     * @param index
+     *            position among all elements
+     * @return element
+     * @throws IndexOutOfBoundsException
+     *             if the index is out of range
+     */
+    E get(int index) {
+        int offset = index;
+        if (offset >= 0) {
+            for (List<E> bucket : buckets.values()) {
+                if (offset < bucket.size()) {
+                    return bucket.get(offset);
+                }
+                offset -= bucket.size();
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+}
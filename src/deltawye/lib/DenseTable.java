@@ -0,0 +1,114 @@
+package deltawye.lib;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class of tables indexed by non-negative element IDs.
+ *
+ * <p>
+ * IDs are usually small and compact, so subclasses store the entries of IDs
+ * below the length of an array in that array. The array only grows up to a
+ * limit given by the subclass; entries of larger IDs (e.g. a vertex numbered
+ * 2000000000 in an input file) are kept in the hash map {@link #sparse}
+ * instead, so that memory never depends on the magnitude of an ID. When the
+ * array grows, the sparse entries that fit are moved into it.
+ *
+ * @param <T>
+ *            the type of entries in the hash map
+ */
+abstract class DenseTable<T> {
+
+    /**
+     * Initial capacity of the array.
+     */
+    static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Entries of IDs that do not fit into the array.
+     */
+    final Map<Integer, T> sparse;
+
+    /**
+     * Create a table with an empty hash map.
+     */
+    DenseTable() {
+        sparse = new HashMap<>();
+    }
+
+    /**
+     * Return the length of the array.
+     *
+     * @return the length of the array
+     */
+    abstract int capacity();
+
+    /**
+     * Return the exclusive upper bound for IDs that the array may grow to
+     * hold.
+     *
+     * @return the dense limit
+     */
+    abstract int denseLimit();
+
+    /**
+     * Replace the array by a copy of the specified length.
+     *
+     * @param length
+     *            the new length, larger than the current one
+     */
+    abstract void resize(int length);
+
+    /**
+     * Store a sparse entry in the array.
+     *
+     * @param id
+     *            element ID that fits into the array
+     * @param value
+     *            the entry
+     */
+    abstract void moveToDense(int id, T value);
+
+    /**
+     * Return whether the entry of the specified ID is stored in the array.
+     *
+     * @param id
+     *            element ID
+     * @return true if the ID indexes the array
+     */
+    final boolean isDense(int id) {
+        return id >= 0 && id < capacity();
+    }
+
+    /**
+     * Prepare storing an entry for the specified ID: grow the array if the ID
+     * is within the dense limit but does not fit yet.
+     *
+     * @param id
+     *            element ID
+     * @return true if the entry goes into the array, false if it goes into
+     *         {@link #sparse}
+     * @throws IllegalArgumentException
+     *             if the ID is negative
+     */
+    final boolean reserve(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative ID: " + id);
+        }
+        int length = capacity();
+        if (id >= length && id < denseLimit()) {
+            int newLength = Math.max(id + 1, 2 * length);
+            resize(newLength);
+            sparse.entrySet()
+                  .removeIf(entry -> {
+                      if (entry.getKey() < newLength) {
+                          moveToDense(entry.getKey(), entry.getValue());
+                          return true;
+                      }
+                      return false;
+                  });
+        }
+        return id < capacity();
+    }
+
+}
@@ -0,0 +1,238 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * An assignment of integer labels to edges.
+ *
+ * <p>
+ * The labels are stored in a primitive array indexed by edge IDs, which grows
+ * as needed for edges with larger IDs. Looking up, setting and removing a label
+ * takes constant time and does not allocate any objects.
+ *
+ * @param <V>
+ *            the type of vertices
+ */
+class EdgeLabeling<V extends Vertex<V>> {
+
+    /**
+     * Initial capacity of the arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Label of each edge ID, only meaningful if the edge is present.
+     */
+    private int[] labels;
+
+    /**
+     * Labeled edge of each edge ID, or null if the edge ID has no label.
+     */
+    private Object[] edges;
+
+    /**
+     * Number of labeled edges.
+     */
+    private int size;
+
+    /**
+     * Create an empty labeling.
+     */
+    EdgeLabeling() {
+        labels = new int[INITIAL_CAPACITY];
+        edges = new Object[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Return the ID of the specified edge.
+     *
+     * @param e
+     *            an edge
+     * @return edge ID
+     */
+    private static int edgeID(UndirectedEdge<?> e) {
+        int id = e.getID();
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative edge ID: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Grow the arrays such that the specified ID fits.
+     *
+     * @param id
+     *            edge ID
+     */
+    private void ensureCapacity(int id) {
+        if (id < edges.length) {
+            return;
+        }
+        int newLength = Math.max(id + 1, 2 * edges.length);
+        labels = Arrays.copyOf(labels, newLength);
+        edges = Arrays.copyOf(edges, newLength);
+    }
+
+    /**
+     * Return the number of labeled edges.
+     *
+     * @return number of labeled edges
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return whether the specified object is a labeled edge.
+     *
+     * @param o
+     *            some object
+     * @return true if the object is a labeled edge
+     */
+    boolean contains(Object o) {
+        if (!(o instanceof UndirectedEdge)) {
+            return false;
+        }
+        int id = ((UndirectedEdge<?>) o).getID();
+        return id >= 0 && id < edges.length && o.equals(edges[id]);
+    }
+
+    /**
+     * Return the label of the specified edge.
+     *
+     * @param e
+     *            a labeled edge
+     * @return label of the edge
+     * @throws NoSuchElementException
+     *             if the edge is not labeled
+     */
+    int get(UndirectedEdge<V> e) {
+        if (!contains(e)) {
+            throw new NoSuchElementException("No label for edge: " + e);
+        }
+        return labels[e.getID()];
+    }
+
+    /**
+     * Set the label of the specified edge.
+     *
+     * @param e
+     *            an edge
+     * @param label
+     *            the new label
+     */
+    void put(UndirectedEdge<V> e, int label) {
+        int id = edgeID(e);
+        ensureCapacity(id);
+        if (edges[id] == null) {
+            size++;
+        }
+        edges[id] = e;
+        labels[id] = label;
+    }
+
+    /**
+     * Set the label of the specified edge, unless it is already labeled.
+     *
+     * @param e
+     *            an edge
+     * @param label
+     *            the new label
+     */
+    void putIfAbsent(UndirectedEdge<V> e, int label) {
+        if (!contains(e)) {
+            put(e, label);
+        }
+    }
+
+    /**
+     * Remove the label of the specified edge, if any.
+     *
+     * @param e
+     *            an edge
+     */
+    void remove(UndirectedEdge<V> e) {
+        if (contains(e)) {
+            edges[e.getID()] = null;
+            size--;
+        }
+    }
+
+    /**
+     * Return a read-only map view of this labeling.
+     *
+     * <p>
+     * The view reflects later changes of the labeling. Edges are iterated in
+     * the order of their IDs.
+     *
+     * @return map from edges to labels
+     */
+    Map<UndirectedEdge<V>, Integer> asMap() {
+        return new AbstractMap<UndirectedEdge<V>, Integer>() {
+
+            @Override
+            public Set<Map.Entry<UndirectedEdge<V>, Integer>> entrySet() {
+                return new AbstractSet<Map.Entry<UndirectedEdge<V>, Integer>>() {
+
+                    @Override
+                    public Iterator<Map.Entry<UndirectedEdge<V>, Integer>> iterator() {
+                        return new Iterator<Map.Entry<UndirectedEdge<V>, Integer>>() {
+
+                            private int cursor = advance(0);
+
+                            private int advance(int from) {
+                                int id = from;
+                                while (id < edges.length && edges[id] == null) {
+                                    id++;
+                                }
+                                return id;
+                            }
+
+                            @Override
+                            public boolean hasNext() {
+                                return cursor < edges.length;
+                            }
+
+                            @SuppressWarnings("unchecked")
+                            @Override
+                            public Map.Entry<UndirectedEdge<V>, Integer> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                Map.Entry<UndirectedEdge<V>, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+                                        (UndirectedEdge<V>) edges[cursor], labels[cursor]);
+                                cursor = advance(cursor + 1);
+                                return entry;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return contains(key);
+            }
+
+            @Override
+            public Integer get(Object key) {
+                if (!contains(key)) {
+                    return null;
+                }
+                return labels[((UndirectedEdge<?>) key).getID()];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+}
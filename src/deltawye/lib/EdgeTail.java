@@ -86,7 +86,7 @@ public final class EdgeTail<V extends Vertex<V>>
      * @return the tail at the other side
      */
     public EdgeTail<V> otherSide() {
-        return new EdgeTail<>(edge, Side.reverse(side));
+        return edge.tail(Side.reverse(side));
     }
 
     /**
@@ -186,13 +186,24 @@ public final class EdgeTail<V extends Vertex<V>>
         return getTarget().equals(other.getSource());
     }
 
+    /**
+     * Return the half edge ID of this edge tail, i.e. {@code 2 * e + s} for
+     * the edge ID {@code e} and the side {@code s} (0 for left, 1 for right).
+     *
+     * <p>
+     * Half edge IDs of edges with non-negative IDs are non-negative and
+     * distinct, and the half edge IDs of both tails of an edge differ only in
+     * the lowest bit.
+     *
+     * @return half edge ID
+     */
+    int halfEdgeID() {
+        return 2 * getID() + (side == Side.LEFT ? 0 : 1);
+    }
+
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((edge == null) ? 0 : edge.hashCode());
-        result = prime * result + ((side == null) ? 0 : side.hashCode());
-        return result;
+        return halfEdgeID();
     }
 
     @Override
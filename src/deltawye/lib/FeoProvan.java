@@ -94,10 +94,27 @@ public class FeoProvan implements GraphTransformationAlgorithm {
 
     }
 
+    /**
+     * Algorithm parameter: Engine for finding the applicable transformations.
+     */
+    public enum Engine {
+        /**
+         * Rescan all vertices and faces in every step (default).
+         */
+        RESCAN,
+
+        /**
+         * Keep the applicable transformations in a worklist, and after each
+         * step recheck only the vertices and faces touched by the performed
+         * transformation.
+         */
+        WORKLIST
+    }
+
     /**
      * The current reduction state of the plane graph.
      */
-    private AtomicPlaneGraph graph;
+    private final AtomicPlaneGraph graph;
 
     /**
      * The active strategy for selecting the next transformation.
@@ -109,6 +126,29 @@ public class FeoProvan implements GraphTransformationAlgorithm {
      */
     private final StartVertexStrategy startVertexStrategy;
 
+    /**
+     * The active engine for finding the applicable transformations.
+     */
+    private final Engine engine;
+
+    /**
+     * Worklist of applicable vertex transformations, by vertex. Only used by
+     * {@link Engine#WORKLIST}.
+     */
+    private Map<AtomicVertex, Transformation> vertexCandidates;
+
+    /**
+     * Worklist of applicable face transformations, by the first edge tail of
+     * the face. Only used by {@link Engine#WORKLIST}.
+     */
+    private Map<EdgeTail<AtomicVertex>, Transformation> faceCandidates;
+
+    /**
+     * All transformations in the worklist, ordered by the active selection
+     * strategy. Only used by {@link Engine#WORKLIST}.
+     */
+    private IndexedHeap<Transformation> candidateHeap;
+
     /**
      * The start vertex for the edge labeling.
      */
@@ -117,12 +157,13 @@ public class FeoProvan implements GraphTransformationAlgorithm {
     /**
      * Edge labels for {@link FeoProvan#graph}.
      */
-    private Map<UndirectedEdge<AtomicVertex>, Integer> edgeLabels;
+    private EdgeLabeling<AtomicVertex> edgeLabels;
 
     /**
-     * The original graph.
+     * Journal mark of the original graph, which {@link #reset()} rolls back
+     * to.
      */
-    private final AtomicPlaneGraph originalGraph;
+    private final PlaneGraph.Mark initialState;
 
     /**
      * Size of the original graph. Used for measuring progress.
@@ -137,7 +178,12 @@ public class FeoProvan implements GraphTransformationAlgorithm {
     /**
      * Random number generator.
      */
-    private final Random random;
+    private final SplittableRandom random;
+
+    /**
+     * Time spent on computing the current edge labeling, in nanoseconds.
+     */
+    private long labelingTime;
 
     /**
      * Initialize reduction algorithm on the specified plane graph using the
@@ -152,18 +198,67 @@ public class FeoProvan implements GraphTransformationAlgorithm {
      *            the strategy for selecting the start vertex
      * @param tselStrategy
      *            the strategy for selecting the next transformation
+     * @param engine
+     *            the engine for finding the applicable transformations
      */
     public FeoProvan(AtomicPlaneGraph graph, StartVertexStrategy startVertexStrategy,
-            TransformSelectionStrategy tselStrategy) {
+            TransformSelectionStrategy tselStrategy, Engine engine) {
+        this(graph, startVertexStrategy, tselStrategy, engine, new SplittableRandom());
+    }
+
+    /**
+     * Initialize reduction algorithm on the specified plane graph using the
+     * specified parameters and source of randomness.
+     *
+     * <p>
+     * The input graph has to be connected. It is only read, so several
+     * instances may share it as long as nobody modifies it (see
+     * {@link FeoProvanPortfolio}).
+     *
+     * @param graph
+     *            the graph to be reduced
+     * @param startVertexStrategy
+     *            the strategy for selecting the start vertex
+     * @param tselStrategy
+     *            the strategy for selecting the next transformation
+     * @param engine
+     *            the engine for finding the applicable transformations
+     * @param random
+     *            the random number generator for the random strategies
+     */
+    FeoProvan(AtomicPlaneGraph graph, StartVertexStrategy startVertexStrategy,
+            TransformSelectionStrategy tselStrategy, Engine engine,
+            SplittableRandom random) {
         this.graph = new AtomicPlaneGraph(graph);
         this.startVertexStrategy = startVertexStrategy;
         this.tselStrategy = tselStrategy;
-        originalGraph = graph;
+        this.engine = engine;
+        this.random = random;
+        initialState = this.graph.mark();
         originalSize = graph.size();
-        startVertex = getStartVertex(graph, startVertexStrategy);
-        edgeLabels = computeEdgeLabels(graph, startVertex);
-        random = new Random();
+        startVertex = getStartVertex(this.graph, startVertexStrategy);
+        initEdgeLabels();
         reportNewEdges = false;
+        initWorklist();
+    }
+
+    /**
+     * Initialize reduction algorithm on the specified plane graph using the
+     * specified parameters and the default engine ({@link Engine#RESCAN}).
+     *
+     * <p>
+     * The input graph has to be connected.
+     *
+     * @param graph
+     *            the graph to be reduced
+     * @param startVertexStrategy
+     *            the strategy for selecting the start vertex
+     * @param tselStrategy
+     *            the strategy for selecting the next transformation
+     */
+    public FeoProvan(AtomicPlaneGraph graph, StartVertexStrategy startVertexStrategy,
+            TransformSelectionStrategy tselStrategy) {
+        this(graph, startVertexStrategy, tselStrategy, Engine.RESCAN);
     }
 
     /**
@@ -182,12 +277,31 @@ public class FeoProvan implements GraphTransformationAlgorithm {
     }
 
     /**
-     * Return the edge labeling.
+     * Compute the edge labeling for the current graph from the current start
+     * vertex, and measure the time spent.
+     */
+    private void initEdgeLabels() {
+        long start = System.nanoTime();
+        edgeLabels = computeEdgeLabels(graph, startVertex);
+        labelingTime = System.nanoTime() - start;
+    }
+
+    /**
+     * Return the time spent on computing the current edge labeling.
+     *
+     * @return labeling time in nanoseconds
+     */
+    public long getLabelingTime() {
+        return labelingTime;
+    }
+
+    /**
+     * Return a read-only view of the edge labeling.
      *
      * @return edge labeling
      */
     public Map<UndirectedEdge<AtomicVertex>, Integer> getEdgeLabels() {
-        return edgeLabels;
+        return edgeLabels.asMap();
     }
 
     /**
@@ -202,30 +316,34 @@ public class FeoProvan implements GraphTransformationAlgorithm {
     }
 
     /**
-     * Lookup the labels of the specified edges.
+     * Return the minimum label of the specified edges.
      *
      * @param edges
-     *            the edges to look up
-     * @return list of labels of the edges
+     *            nonempty collection of edges
+     * @return minimum label
      */
-    private List<Integer> lookupLabels(Collection<UndirectedEdge<AtomicVertex>> edges) {
-        return edges.stream()
-                    .map(e -> edgeLabels.get(e))
-                    .collect(Collectors.toList());
+    private int minLabel(Collection<UndirectedEdge<AtomicVertex>> edges) {
+        int min = Integer.MAX_VALUE;
+        for (UndirectedEdge<AtomicVertex> e : edges) {
+            min = Math.min(min, edgeLabels.get(e));
+        }
+        return min;
     }
 
     /**
-     * Lookup the labels of the edges corresponding to the specified edge tails.
+     * Return the maximum label of the edges corresponding to the specified edge
+     * tails.
      *
      * @param edgeTails
-     *            the edge tails to look up
-     * @return list of labels of the corresponding edges
-     */
-    private List<Integer> lookupLabelsTails(
-            Collection<EdgeTail<AtomicVertex>> edgeTails) {
-        return edgeTails.stream()
-                        .map(e -> edgeLabels.get(e.getEdge()))
-                        .collect(Collectors.toList());
+     *            nonempty collection of edge tails
+     * @return maximum label
+     */
+    private int maxLabelTails(Collection<EdgeTail<AtomicVertex>> edgeTails) {
+        int max = Integer.MIN_VALUE;
+        for (EdgeTail<AtomicVertex> e : edgeTails) {
+            max = Math.max(max, lookupLabel(e));
+        }
+        return max;
     }
 
     @Override
@@ -239,96 +357,318 @@ public class FeoProvan implements GraphTransformationAlgorithm {
             throw new InvalidGraphTransformException("K1 is not reducible.");
         }
 
+        if (engine == Engine.WORKLIST) {
+            if (candidateHeap.isEmpty()) {
+                reportNoTransformation();
+            }
+            Transformation nextTransformation;
+            if (tselStrategy == TransformSelectionStrategy.RANDOM) {
+                nextTransformation = candidateHeap.get(
+                        random.nextInt(candidateHeap.size()));
+            } else {
+                nextTransformation = candidateHeap.peek();
+            }
+            return applyAndUpdateWorklist(nextTransformation);
+        }
+
         List<Transformation> possibleTransformations = new ArrayList<>();
         for (AtomicVertex v : graph.vertices()) {
-            if (satisfiesP2(v)) {
-                possibleTransformations.add(new R1V(v));
-            } else if (satisfiesP3(v)) {
-                possibleTransformations.add(new R2V(v));
-            } else if (satisfiesP6(v)) {
-                possibleTransformations.add(new R3V(v));
+            Transformation t = findVertexTransformation(v);
+            if (t != null) {
+                possibleTransformations.add(t);
             }
         }
         for (Circuit<AtomicVertex> f : graph.faces()) {
-            EdgeTail<AtomicVertex> e = f.edgeList()
-                                        .getFirst();
-            if (satisfiesP1(e)) {
-                possibleTransformations.add(new R1F(e));
-            } else if (satisfiesP4(e)) {
-                possibleTransformations.add(new R2F(e));
-            } else if (satisfiesP5(e)) {
-                possibleTransformations.add(new R3F(e));
+            Transformation t = findFaceTransformation(f.edgeList()
+                                                       .getFirst());
+            if (t != null) {
+                possibleTransformations.add(t);
             }
         }
 
         if (possibleTransformations.isEmpty()) {
-            System.err.println("ERROR: No transformation possible!");
-            System.err.println("Dumping edge labels:");
-            edgeLabels.forEach((k, v) -> System.err.println(" " + k + ": " + v));
-            throw new InvalidGraphTransformException("No rule applicable!");
+            reportNoTransformation();
+        }
+
+        Transformation nextTransformation = selectNextTransformation(
+                possibleTransformations);
+        return nextTransformation.apply();
+    }
+
+    /**
+     * Dump the edge labels and fail because no transformation is applicable.
+     *
+     * @throws InvalidGraphTransformException
+     *             always
+     */
+    private void reportNoTransformation() {
+        System.err.println("ERROR: No transformation possible!");
+        System.err.println("Dumping edge labels:");
+        getEdgeLabels().forEach((k, v) -> System.err.println(" " + k + ": " + v));
+        throw new InvalidGraphTransformException("No rule applicable!");
+    }
+
+    /**
+     * Return the transformation that can be applied at the specified vertex.
+     *
+     * @param v
+     *            vertex under consideration
+     * @return applicable transformation, or null if there is none
+     */
+    private Transformation findVertexTransformation(AtomicVertex v) {
+        if (satisfiesP2(v)) {
+            return new R1V(v);
+        } else if (satisfiesP3(v)) {
+            return new R2V(v);
+        } else if (satisfiesP6(v)) {
+            return new R3V(v);
         }
+        return null;
+    }
 
-        return selectNextTransformation(possibleTransformations).apply();
+    /**
+     * Return the transformation that can be applied at the face identified by
+     * the specified edge tail.
+     *
+     * @param e
+     *            edge tail (face) under consideration
+     * @return applicable transformation, or null if there is none
+     */
+    private Transformation findFaceTransformation(EdgeTail<AtomicVertex> e) {
+        if (satisfiesP1(e)) {
+            return new R1F(e);
+        } else if (satisfiesP4(e)) {
+            return new R2F(e);
+        } else if (satisfiesP5(e)) {
+            return new R3F(e);
+        }
+        return null;
+    }
+
+    /**
+     * Fill the worklist with all applicable transformations, if the worklist
+     * engine is active.
+     */
+    private void initWorklist() {
+        if (engine != Engine.WORKLIST) {
+            return;
+        }
+        vertexCandidates = new HashMap<>();
+        faceCandidates = new HashMap<>();
+        candidateHeap = new IndexedHeap<>(selectionOrder().thenComparing(this::compareSites));
+        for (AtomicVertex v : graph.vertices()) {
+            updateVertexCandidate(v);
+        }
+        if (graph.size() > 0) {
+            for (Circuit<AtomicVertex> f : graph.faces()) {
+                updateFaceCandidate(f.edgeList()
+                                     .getFirst());
+            }
+        }
+    }
+
+    /**
+     * Recheck the specified vertex and update the worklist.
+     *
+     * @param v
+     *            vertex under consideration
+     */
+    private void updateVertexCandidate(AtomicVertex v) {
+        Transformation t = findVertexTransformation(v);
+        Transformation old = t == null ? vertexCandidates.remove(v)
+                : vertexCandidates.put(v, t);
+        updateHeap(old, t);
+    }
+
+    /**
+     * Recheck the face of the specified edge tail and update the worklist.
+     *
+     * @param e
+     *            edge tail (face) under consideration
+     */
+    private void updateFaceCandidate(EdgeTail<AtomicVertex> e) {
+        EdgeTail<AtomicVertex> first = graph.getFace(e)
+                                            .edgeList()
+                                            .getFirst();
+        Transformation t = findFaceTransformation(first);
+        Transformation old = t == null ? faceCandidates.remove(first)
+                : faceCandidates.put(first, t);
+        updateHeap(old, t);
+    }
+
+    /**
+     * Replace a transformation in the heap of the worklist.
+     *
+     * @param oldCandidate
+     *            the transformation to remove, or null
+     * @param newCandidate
+     *            the transformation to add, or null
+     */
+    private void updateHeap(Transformation oldCandidate, Transformation newCandidate) {
+        if (oldCandidate == null) {
+            if (newCandidate != null) {
+                candidateHeap.add(newCandidate);
+            }
+        } else if (newCandidate == null) {
+            candidateHeap.remove(oldCandidate);
+        } else {
+            candidateHeap.replace(oldCandidate, newCandidate);
+        }
+    }
+
+    /**
+     * Perform the specified transformation and update the worklist.
+     *
+     * <p>
+     * All edges that are added or removed by a transformation connect vertices
+     * of its site (see {@link Transformation#getSiteVertices()}) or a new
+     * vertex that is adjacent to the site. Thus, only the faces around the
+     * surviving site vertices and the vertices in their closed neighborhood
+     * have to be checked again.
+     *
+     * @param t
+     *            the transformation to perform
+     * @return description of the transformation
+     */
+    private String applyAndUpdateWorklist(Transformation t) {
+        Set<AtomicVertex> site = t.getSiteVertices();
+        for (AtomicVertex v : site) {
+            updateHeap(vertexCandidates.remove(v), null);
+            for (EdgeTail<AtomicVertex> e : graph.incidentEdgeTails(v)) {
+                updateHeap(faceCandidates.remove(graph.getFace(e)
+                                                      .edgeList()
+                                                      .getFirst()),
+                        null);
+            }
+        }
+        String description = t.apply();
+        Set<AtomicVertex> touched = new TreeSet<>();
+        for (AtomicVertex v : site) {
+            if (graph.vertices()
+                     .contains(v)) {
+                touched.add(v);
+                touched.addAll(graph.neighbors(v));
+            }
+        }
+        for (AtomicVertex v : touched) {
+            updateVertexCandidate(v);
+        }
+        for (AtomicVertex v : site) {
+            if (graph.vertices()
+                     .contains(v)) {
+                for (EdgeTail<AtomicVertex> e : graph.incidentEdgeTails(v)) {
+                    updateFaceCandidate(e);
+                }
+            }
+        }
+        return description;
     }
 
     /**
      * Choose the next transformation from a list based on the active selection
      * strategy.
      *
+     * <p>
+     * Among equally good transformations, the one with the least site is
+     * chosen (see {@link #compareSites}), like in the worklist, so that both
+     * engines perform the same steps.
+     *
      * @param possibleTransformations
      *            list of possible transformations
      * @return next transformation
      */
     private Transformation selectNextTransformation(
             List<Transformation> possibleTransformations) {
-        Transformation nextTransformation;
         if (tselStrategy == TransformSelectionStrategy.RANDOM) {
             int idx = random.nextInt(possibleTransformations.size());
-            nextTransformation = possibleTransformations.get(idx);
-        } else if (tselStrategy == TransformSelectionStrategy.MINLABEL) {
-            nextTransformation = Collections.min(possibleTransformations,
-                    (a, b) -> Integer.compare(a.getMinLabel(), b.getMinLabel()));
+            return possibleTransformations.get(idx);
+        }
+        return Collections.min(possibleTransformations,
+                selectionOrder().thenComparing(this::compareSites));
+    }
+
+    /**
+     * Return the ordering of transformations that corresponds to the active
+     * selection strategy. The preferred transformation is the least element.
+     *
+     * <p>
+     * For {@link TransformSelectionStrategy#RANDOM}, all transformations are
+     * equal.
+     *
+     * @return comparator for transformations
+     */
+    private Comparator<Transformation> selectionOrder() {
+        if (tselStrategy == TransformSelectionStrategy.MINLABEL) {
+            return (a, b) -> Integer.compare(a.getMinLabel(), b.getMinLabel());
         } else if (tselStrategy == TransformSelectionStrategy.MAXLABEL) {
-            nextTransformation = Collections.max(possibleTransformations,
-                    (a, b) -> Integer.compare(a.getMaxLabel(), b.getMaxLabel()));
+            return (a, b) -> Integer.compare(b.getMaxLabel(), a.getMaxLabel());
         } else if (tselStrategy == TransformSelectionStrategy.MINDEGREE) {
-            nextTransformation = Collections.min(possibleTransformations, (a, b) -> {
+            return (a, b) -> {
                 int byDegree = Integer.compare(a.getDegree(), b.getDegree());
                 if (byDegree != 0) {
                     return byDegree;
                 }
                 return a.getType()
                         .compareTo(b.getType());
-            });
+            };
         } else if (tselStrategy == TransformSelectionStrategy.MAXDEGREE) {
-            nextTransformation = Collections.max(possibleTransformations, (a, b) -> {
-                int byDegree = Integer.compare(a.getDegree(), b.getDegree());
+            return (a, b) -> {
+                int byDegree = Integer.compare(b.getDegree(), a.getDegree());
                 if (byDegree != 0) {
                     return byDegree;
                 }
-                return b.getType()
-                        .compareTo(a.getType());
-            });
+                return a.getType()
+                        .compareTo(b.getType());
+            };
         } else if (tselStrategy == TransformSelectionStrategy.VERTEXFIRST) {
-            nextTransformation = Collections.min(possibleTransformations, (a, b) -> {
+            return (a, b) -> {
                 int byType = a.getType()
                               .compareTo(b.getType());
                 if (byType != 0) {
                     return byType;
                 }
                 return Integer.compare(a.getDegree(), b.getDegree());
-            });
-        } else { // TransformSelectionStrategy.FACEFIRST
-            nextTransformation = Collections.min(possibleTransformations, (a, b) -> {
+            };
+        } else if (tselStrategy == TransformSelectionStrategy.FACEFIRST) {
+            return (a, b) -> {
                 int byType = b.getType()
                               .compareTo(a.getType());
                 if (byType != 0) {
                     return byType;
                 }
                 return Integer.compare(a.getDegree(), b.getDegree());
-            });
+            };
+        } // else: TransformSelectionStrategy.RANDOM
+        return (a, b) -> 0;
+    }
+
+    /**
+     * Compare two transformations by their sites: vertex transformations come
+     * before face transformations, and transformations of the same type are
+     * ordered by their identifying vertex or edge tail.
+     *
+     * <p>
+     * Both engines break ties of the selection order by this order, which
+     * does not depend on the iteration order of vertices and faces.
+     *
+     * @param a
+     *            some transformation
+     * @param b
+     *            another transformation
+     * @return comparison result
+     */
+    private int compareSites(Transformation a, Transformation b) {
+        int byType = a.getType()
+                      .compareTo(b.getType());
+        if (byType != 0) {
+            return byType;
         }
-        return nextTransformation;
+        if (a.getType() == TransformationType.VERTEX) {
+            return ((VertexTransformation) a).getVertex()
+                                             .compareTo(((VertexTransformation) b).getVertex());
+        }
+        return ((FaceTransformation) a).getEdgeTail()
+                                       .compareTo(((FaceTransformation) b).getEdgeTail());
     }
 
     /**
@@ -370,9 +710,10 @@ public class FeoProvan implements GraphTransformationAlgorithm {
 
     @Override
     public void reset() {
-        graph = new AtomicPlaneGraph(originalGraph);
+        graph.rollback(initialState);
         startVertex = getStartVertex(graph, startVertexStrategy);
-        edgeLabels = computeEdgeLabels(graph, startVertex);
+        initEdgeLabels();
+        initWorklist();
     }
 
     @Override
@@ -383,7 +724,9 @@ public class FeoProvan implements GraphTransformationAlgorithm {
                         + " edges.",
                 "Transformation selection strategy: " + tselStrategy,
                 "Start vertex selection strategy: " + startVertexStrategy,
-                "Start vertex: " + startVertex);
+                "Engine: " + engine,
+                "Start vertex: " + startVertex,
+                String.format("Edge labeling time: %.3f ms", labelingTime / 1e6));
     }
 
     @Override
@@ -417,22 +760,32 @@ public class FeoProvan implements GraphTransformationAlgorithm {
      * Compute an edge labeling according to Feo and Provan 1993, using the
      * specified start vertex.
      *
+     * <p>
+     * The labeling is computed by a breadth-first search over the faces and
+     * vertices of the graph: In each round, the edges incident to the current
+     * boundary vertices receive the current (odd) level, and the faces around
+     * these vertices that have not been visited yet are traversed, their
+     * unlabeled edges receive the next (even) level and their unvisited
+     * vertices form the next boundary. Each face is traversed only once.
+     *
      * @param g
      *            input graph
      * @param start
      *            the start vertex for the labeling
      * @return edge labeling
      */
-    private static Map<UndirectedEdge<AtomicVertex>, Integer> computeEdgeLabels(
-            AtomicPlaneGraph g, AtomicVertex start) {
-        Map<UndirectedEdge<AtomicVertex>, Integer> edgeLabels = new HashMap<>();
-        Map<AtomicVertex, Integer> vertexLabels = new HashMap<>();
-        vertexLabels.put(start, 0);
-        Set<AtomicVertex> boundary = Stream.of(start)
-                                           .collect(Collectors.toSet());
+    private static EdgeLabeling<AtomicVertex> computeEdgeLabels(AtomicPlaneGraph g,
+            AtomicVertex start) {
+        EdgeLabeling<AtomicVertex> edgeLabels = new EdgeLabeling<>();
+        // visited vertices by ID, visited faces by the IDs of their edge tails
+        BitSet visitedVertices = new BitSet();
+        BitSet visitedEdgeTails = new BitSet();
+        visitedVertices.set(start.getID());
+        List<AtomicVertex> boundary = new ArrayList<>();
+        List<AtomicVertex> nextBoundary = new ArrayList<>();
+        boundary.add(start);
         int level = 1;
         while (!boundary.isEmpty()) {
-            Set<AtomicVertex> nextBoundary = new HashSet<>();
             for (AtomicVertex v : boundary) {
                 for (EdgeTail<AtomicVertex> e : g.incidentEdgeTails(v)) {
                     edgeLabels.putIfAbsent(e.getEdge(), level);
@@ -440,19 +793,26 @@ public class FeoProvan implements GraphTransformationAlgorithm {
             }
             for (AtomicVertex v : boundary) {
                 for (EdgeTail<AtomicVertex> e : g.incidentEdgeTails(v)) {
-                    Circuit<AtomicVertex> face = g.getFace(e);
-                    for (UndirectedEdge<AtomicVertex> fe : face.edgesUndirected()) {
-                        edgeLabels.putIfAbsent(fe, level + 1);
+                    if (visitedEdgeTails.get(e.halfEdgeID())) {
+                        continue; // face already visited
                     }
-                    for (AtomicVertex w : face.vertices()) {
-                        if (!vertexLabels.containsKey(w)) {
-                            vertexLabels.put(w, level + 1);
+                    EdgeTail<AtomicVertex> cur = e;
+                    do {
+                        visitedEdgeTails.set(cur.halfEdgeID());
+                        edgeLabels.putIfAbsent(cur.getEdge(), level + 1);
+                        AtomicVertex w = cur.getSource();
+                        if (!visitedVertices.get(w.getID())) {
+                            visitedVertices.set(w.getID());
                             nextBoundary.add(w);
                         }
-                    }
+                        cur = g.nextEdge(cur, RotationDirection.CLOCKWISE);
+                    } while (!cur.equals(e));
                 }
             }
+            List<AtomicVertex> done = boundary;
             boundary = nextBoundary;
+            nextBoundary = done;
+            nextBoundary.clear();
             level += 2;
         }
         return edgeLabels;
@@ -467,7 +827,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
      *            the strategy for selecting the start vertex
      * @return start vertex
      */
-    private static AtomicVertex getStartVertex(AtomicPlaneGraph g,
+    private AtomicVertex getStartVertex(AtomicPlaneGraph g,
             StartVertexStrategy strategy) {
         AtomicVertex start;
         if (strategy == StartVertexStrategy.MINIMUM) {
@@ -476,7 +836,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
             start = Collections.max(g.vertices());
         } else { // StartVertexStrategy.RANDOM
             List<AtomicVertex> vertices = new ArrayList<>(g.vertices());
-            int idx = new Random().nextInt(vertices.size());
+            int idx = random.nextInt(vertices.size());
             start = vertices.get(idx);
         }
         return start;
@@ -579,9 +939,13 @@ public class FeoProvan implements GraphTransformationAlgorithm {
      * @return true if the labeling is correct
      */
     private boolean validLabels2(Collection<UndirectedEdge<AtomicVertex>> edges) {
-        List<Integer> labels = lookupLabels(edges);
-        int minLabel = Collections.min(labels);
-        int maxLabel = Collections.max(labels);
+        int minLabel = Integer.MAX_VALUE;
+        int maxLabel = Integer.MIN_VALUE;
+        for (UndirectedEdge<AtomicVertex> e : edges) {
+            int label = edgeLabels.get(e);
+            minLabel = Math.min(minLabel, label);
+            maxLabel = Math.max(maxLabel, label);
+        }
         return maxLabel == minLabel || maxLabel == minLabel + 1;
     }
 
@@ -599,16 +963,21 @@ public class FeoProvan implements GraphTransformationAlgorithm {
      * @return true if the labeling is correct
      */
     private boolean validLabels3(Collection<UndirectedEdge<AtomicVertex>> edges) {
-        List<Integer> labels = lookupLabels(edges);
-        int minLabel = Collections.min(labels);
-        int maxLabel = Collections.max(labels);
-        if (maxLabel != minLabel + 1) {
-            return false;
+        int minLabel = Integer.MAX_VALUE;
+        int maxLabel = Integer.MIN_VALUE;
+        int maxCount = 0;
+        for (UndirectedEdge<AtomicVertex> e : edges) {
+            int label = edgeLabels.get(e);
+            minLabel = Math.min(minLabel, label);
+            if (label > maxLabel) {
+                maxLabel = label;
+                maxCount = 1;
+            } else if (label == maxLabel) {
+                maxCount++;
+            }
         }
         // required occurrences: 1x minLabel, 2x maxLabel
-        return labels.stream()
-                     .filter(l -> l == maxLabel)
-                     .count() == 2;
+        return maxLabel == minLabel + 1 && maxCount == 2;
     }
 
     /**
@@ -650,8 +1019,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
     private String performP3(AtomicVertex v) {
         String description = "P3 at " + v;
         List<UndirectedEdge<AtomicVertex>> oldEdges = graph.incidentEdges(v);
-        List<Integer> labels = lookupLabels(oldEdges);
-        int minLabel = Collections.min(labels);
+        int minLabel = minLabel(oldEdges);
         UndirectedEdge<AtomicVertex> newEdge = graph.reduceSeries(v);
         oldEdges.stream()
                 .forEach(e -> edgeLabels.remove(e));
@@ -672,8 +1040,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
     private String performP4(EdgeTail<AtomicVertex> e) {
         List<EdgeTail<AtomicVertex>> oldEdges = graph.getFace(e)
                                                      .edgeList();
-        List<Integer> labels = lookupLabelsTails(oldEdges);
-        int maxLabel = Collections.max(labels);
+        int maxLabel = maxLabelTails(oldEdges);
         // remove the parallel edge with the larger label
         UndirectedEdge<AtomicVertex> edge = oldEdges.stream()
                                                     .filter(et -> edgeLabels.get(
@@ -697,8 +1064,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
         Circuit<AtomicVertex> face = graph.getFace(e);
         String description = "P5 at " + face;
         List<EdgeTail<AtomicVertex>> oldEdges = face.edgeList();
-        List<Integer> labels = lookupLabelsTails(oldEdges);
-        int maxLabel = Collections.max(labels);
+        int maxLabel = maxLabelTails(oldEdges);
         // find the vertex shared by the two edges with the larger label
         Iterator<UndirectedEdge<AtomicVertex>> legs = oldEdges.stream()
                                                               .map(et -> et.getEdge())
@@ -736,8 +1102,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
         String description = "P6 at " + v;
         // find the unique edge with the minimum label
         List<UndirectedEdge<AtomicVertex>> oldEdges = graph.incidentEdges(v);
-        List<Integer> labels = lookupLabels(oldEdges);
-        int minLabel = Collections.min(labels);
+        int minLabel = minLabel(oldEdges);
         UndirectedEdge<AtomicVertex> minEdge = oldEdges.stream()
                                                        .filter(e -> edgeLabels.get(
                                                                e) == minLabel)
@@ -803,19 +1168,59 @@ public class FeoProvan implements GraphTransformationAlgorithm {
          */
         public abstract String apply();
 
+        /**
+         * Minimum and maximum label of the involved elements, or null if not
+         * yet computed.
+         *
+         * <p>
+         * The labels of the involved elements do not change as long as this
+         * transformation is applicable, so they are computed only once.
+         */
+        private IntSummaryStatistics labelStatistics;
+
+        /**
+         * Get a stream of the labels of all involved elements.
+         *
+         * @return labels
+         */
+        public abstract IntStream getLabels();
+
+        /**
+         * Return the statistics of the labels of all involved elements.
+         *
+         * @return label statistics
+         */
+        private IntSummaryStatistics getLabelStatistics() {
+            if (labelStatistics == null) {
+                labelStatistics = getLabels().summaryStatistics();
+            }
+            return labelStatistics;
+        }
+
         /**
          * Get the minimum label of any involved element.
          *
          * @return minimum label
          */
-        public abstract int getMinLabel();
+        public int getMinLabel() {
+            return getLabelStatistics().getMin();
+        }
 
         /**
          * Get the maximum label of any involved element.
          *
          * @return maximum label
          */
-        public abstract int getMaxLabel();
+        public int getMaxLabel() {
+            return getLabelStatistics().getMax();
+        }
+
+        /**
+         * Return the vertices at which this transformation takes place.
+         *
+         * @return set of site vertices
+         */
+        public abstract Set<AtomicVertex> getSiteVertices();
     }
 
     /**
@@ -857,22 +1262,21 @@ public class FeoProvan implements GraphTransformationAlgorithm {
          *
          * @return labels
          */
+        @Override
         public IntStream getLabels() {
             return graph.incidentEdgeTails(vertex)
                         .stream()
                         .mapToInt(FeoProvan.this::lookupLabel);
         }
 
+        /**
+         * Return the identifying vertex and its neighbors.
+         */
         @Override
-        public int getMinLabel() {
-            return getLabels().min()
-                              .getAsInt();
-        }
-
-        @Override
-        public int getMaxLabel() {
-            return getLabels().max()
-                              .getAsInt();
+        public Set<AtomicVertex> getSiteVertices() {
+            Set<AtomicVertex> site = new HashSet<>(graph.neighbors(vertex));
+            site.add(vertex);
+            return site;
         }
     }
 
@@ -918,6 +1322,7 @@ public class FeoProvan implements GraphTransformationAlgorithm {
          *
          * @return labels
          */
+        @Override
         public IntStream getLabels() {
             return graph.getFace(edgeTail)
                         .edgeList()
@@ -925,16 +1330,13 @@ public class FeoProvan implements GraphTransformationAlgorithm {
                         .mapToInt(FeoProvan.this::lookupLabel);
         }
 
+        /**
+         * Return the vertices of the identifying face.
+         */
         @Override
-        public int getMinLabel() {
-            return getLabels().min()
-                              .getAsInt();
-        }
-
-        @Override
-        public int getMaxLabel() {
-            return getLabels().max()
-                              .getAsInt();
+        public Set<AtomicVertex> getSiteVertices() {
+            return graph.getFace(edgeTail)
+                        .vertices();
         }
     }
 
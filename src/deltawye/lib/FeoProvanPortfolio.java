@@ -0,0 +1,269 @@
+package deltawye.lib;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Portfolio of concurrent runs of the {@link FeoProvan} algorithm.
+ *
+ * <p>
+ * With a random start vertex or transformation selection strategy, the length
+ * of the reduction sequences found by {@link FeoProvan} varies from run to run.
+ * A portfolio executes many independent runs on a fork-join pool and keeps the
+ * shortest reduction sequence (by normalized length) among all completed runs.
+ *
+ * <p>
+ * All runs share a single private copy of the input graph, which is never
+ * modified. Each worker has its own random number generator, split from the
+ * generator of the portfolio.
+ */
+public class FeoProvanPortfolio {
+
+    /**
+     * The graph to be reduced, shared by all runs.
+     */
+    private final AtomicPlaneGraph graph;
+
+    /**
+     * The strategy for selecting the start vertex.
+     */
+    private final FeoProvan.StartVertexStrategy startVertexStrategy;
+
+    /**
+     * The strategy for selecting the next transformation.
+     */
+    private final FeoProvan.TransformSelectionStrategy tselStrategy;
+
+    /**
+     * The engine for finding the applicable transformations.
+     */
+    private final FeoProvan.Engine engine;
+
+    /**
+     * Number of concurrent workers.
+     */
+    private final int parallelism;
+
+    /**
+     * Random number generator, from which the generators of the workers are
+     * split.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Number of runs completed during the last call of {@link #run}.
+     */
+    private final AtomicInteger completedRuns;
+
+    /**
+     * A reduction sequence together with its normalized length.
+     */
+    private static final class Candidate {
+
+        /**
+         * The reduction sequence.
+         */
+        private final List<String> sequence;
+
+        /**
+         * Normalized length of the reduction sequence.
+         */
+        private final int length;
+
+        /**
+         * Create a candidate.
+         *
+         * @param sequence
+         *            the reduction sequence
+         * @param length
+         *            normalized length of the reduction sequence
+         */
+        Candidate(List<String> sequence, int length) {
+            this.sequence = sequence;
+            this.length = length;
+        }
+
+        /**
+         * Return whether this candidate is shorter than the specified one.
+         *
+         * @param other
+         *            another candidate, or null
+         * @return true if this candidate is shorter
+         */
+        boolean isShorterThan(Candidate other) {
+            if (other == null) {
+                return true;
+            }
+            if (length != other.length) {
+                return length < other.length;
+            }
+            return sequence.size() < other.sequence.size();
+        }
+    }
+
+    /**
+     * Initialize a portfolio on the specified plane graph using the specified
+     * parameters.
+     *
+     * <p>
+     * The input graph has to be connected.
+     *
+     * @param graph
+     *            the graph to be reduced
+     * @param startVertexStrategy
+     *            the strategy for selecting the start vertex
+     * @param tselStrategy
+     *            the strategy for selecting the next transformation
+     * @param engine
+     *            the engine for finding the applicable transformations
+     * @param parallelism
+     *            the number of concurrent workers
+     */
+    public FeoProvanPortfolio(AtomicPlaneGraph graph,
+            FeoProvan.StartVertexStrategy startVertexStrategy,
+            FeoProvan.TransformSelectionStrategy tselStrategy, FeoProvan.Engine engine,
+            int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Parallelism must be positive: " + parallelism);
+        }
+        // A fresh copy has no stale faces, so reading it does not modify it.
+        this.graph = new AtomicPlaneGraph(graph);
+        this.startVertexStrategy = startVertexStrategy;
+        this.tselStrategy = tselStrategy;
+        this.engine = engine;
+        this.parallelism = parallelism;
+        random = new SplittableRandom();
+        completedRuns = new AtomicInteger();
+    }
+
+    /**
+     * Initialize a portfolio on the specified plane graph using the specified
+     * parameters, the default engine and one worker per available processor.
+     *
+     * <p>
+     * The input graph has to be connected.
+     *
+     * @param graph
+     *            the graph to be reduced
+     * @param startVertexStrategy
+     *            the strategy for selecting the start vertex
+     * @param tselStrategy
+     *            the strategy for selecting the next transformation
+     */
+    public FeoProvanPortfolio(AtomicPlaneGraph graph,
+            FeoProvan.StartVertexStrategy startVertexStrategy,
+            FeoProvan.TransformSelectionStrategy tselStrategy) {
+        this(graph, startVertexStrategy, tselStrategy, FeoProvan.Engine.RESCAN,
+                Runtime.getRuntime()
+                       .availableProcessors());
+    }
+
+    /**
+     * Run the algorithm up to {@code maxRuns} times and return the shortest
+     * reduction sequence found.
+     *
+     * <p>
+     * Runs that have not completed when the time budget is exhausted are
+     * cancelled. As soon as a run finds a sequence whose normalized length is
+     * at most {@code lowerBound}, no better sequence can be found and all
+     * remaining runs are cancelled as well.
+     *
+     * @param maxRuns
+     *            maximum number of runs
+     * @param budgetMillis
+     *            wall-clock time budget in milliseconds
+     * @param lowerBound
+     *            a known lower bound on the normalized length of any reduction
+     *            sequence (e.g. 0 if unknown)
+     * @return the shortest reduction sequence found, or null if no run
+     *         completed within the time budget
+     */
+    public List<String> run(int maxRuns, long budgetMillis, int lowerBound) {
+        long deadline = System.nanoTime() + 1000000L * budgetMillis;
+        AtomicInteger startedRuns = new AtomicInteger();
+        AtomicBoolean boundReached = new AtomicBoolean(false);
+        AtomicReference<Candidate> best = new AtomicReference<>();
+        completedRuns.set(0);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                SplittableRandom workerRandom = random.split();
+                workers.add(pool.submit(() -> {
+                    while (!boundReached.get() && System.nanoTime() < deadline
+                            && startedRuns.getAndIncrement() < maxRuns) {
+                        Candidate c = runOnce(workerRandom, deadline, boundReached);
+                        if (c == null) {
+                            return; // cancelled
+                        }
+                        completedRuns.incrementAndGet();
+                        best.accumulateAndGet(c,
+                                (old, cur) -> cur.isShorterThan(old) ? cur : old);
+                        if (c.length <= lowerBound) {
+                            boundReached.set(true);
+                        }
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Candidate result = best.get();
+        return result == null ? null : result.sequence;
+    }
+
+    /**
+     * Perform a single run of the algorithm.
+     *
+     * @param workerRandom
+     *            random number generator of the worker
+     * @param deadline
+     *            end of the time budget, in terms of {@link System#nanoTime()}
+     * @param boundReached
+     *            flag that is set when the lower bound has been reached
+     * @return the found reduction sequence, or null if the run was cancelled
+     */
+    private Candidate runOnce(SplittableRandom workerRandom, long deadline,
+            AtomicBoolean boundReached) {
+        FeoProvan algorithm = new FeoProvan(graph, startVertexStrategy, tselStrategy,
+                engine, workerRandom);
+        List<String> sequence = new ArrayList<>();
+        while (algorithm.hasNextStep()) {
+            if (boundReached.get() || System.nanoTime() >= deadline) {
+                return null;
+            }
+            sequence.add(algorithm.nextStep());
+        }
+        return new Candidate(sequence, algorithm.normalizedLength(sequence));
+    }
+
+    /**
+     * Return the number of runs that were completed during the last call of
+     * {@link #run}.
+     *
+     * @return number of completed runs
+     */
+    public int getCompletedRuns() {
+        return completedRuns.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.getProperty("line.separator"),
+                "Portfolio of Wye-Delta-Wye algorithm based on Feo and Provan 1993,",
+                "running on graph with " + graph.order() + " vertices and " + graph.size()
+                        + " edges.",
+                "Transformation selection strategy: " + tselStrategy,
+                "Start vertex selection strategy: " + startVertexStrategy,
+                "Engine: " + engine, "Parallelism: " + parallelism);
+    }
+
+}
@@ -0,0 +1,398 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * A partition of the edges of a medial graph into geodesic classes.
+ *
+ * <p>
+ * Half edges are identified by {@link EdgeTail#halfEdgeID()}. The direct
+ * extension of every half edge is computed in a single pass over the rotations
+ * of the medial graph and stored in a primitive array, so that following a
+ * geodesic takes constant time per step. Every edge
+ * is labeled with the ID of its geodesic. The geodesic circuits themselves are
+ * only built on request.
+ *
+ * <p>
+ * A labeling does not reflect later changes of the medial graph by itself.
+ * After the rotations of some medial vertices have been replaced, it is
+ * brought up to date by {@link #invalidate} and {@link #relabel}, which only
+ * touch the geodesics through these vertices.
+ */
+class GeodesicLabeling {
+
+    /**
+     * Marker for absent half edges and edges.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Direct extension of each half edge, or {@link #NONE} if the half edge is
+     * absent.
+     */
+    private int[] extension;
+
+    /**
+     * Edge tail object of each half edge, or null if the half edge is absent.
+     */
+    private Object[] tails;
+
+    /**
+     * Geodesic ID of each edge ID, or {@link #NONE} if the edge is absent or
+     * its geodesic has been invalidated.
+     */
+    private int[] geodesicOf;
+
+    /**
+     * Start half edge of each geodesic ID, or {@link #NONE} if the ID is
+     * unused. The start is the left tail of the edge with the least ID in the
+     * geodesic.
+     */
+    private int[] starts;
+
+    /**
+     * Number of geodesic IDs in use or freed, i.e. the length of the used
+     * prefix of {@link #starts}.
+     */
+    private int bound;
+
+    /**
+     * Geodesic IDs that have been freed by {@link #invalidate} and can be
+     * reused.
+     */
+    private final Deque<Integer> freeIDs = new ArrayDeque<>();
+
+    /**
+     * Number of geodesics.
+     */
+    private int count;
+
+    /**
+     * Compute the geodesic labeling of the specified medial graph.
+     *
+     * @param graph
+     *            a medial graph
+     */
+    GeodesicLabeling(MedialGraph graph) {
+        List<RotationList<EdgeTail<MedialVertex>>> rotations = new ArrayList<>();
+        int maxID = NONE;
+        for (MedialVertex v : graph.vertices()) {
+            RotationList<EdgeTail<MedialVertex>> rotation = graph.incidentEdgeTails(v);
+            rotations.add(rotation);
+            for (EdgeTail<MedialVertex> t : rotation) {
+                maxID = Math.max(maxID, t.getID());
+            }
+        }
+        int numberOfHalfEdges = 2 * (maxID + 1);
+        extension = new int[numberOfHalfEdges];
+        Arrays.fill(extension, NONE);
+        tails = new Object[numberOfHalfEdges];
+        geodesicOf = new int[maxID + 1];
+        Arrays.fill(geodesicOf, NONE);
+
+        // The direct extension of a half edge entering a vertex leaves it two
+        // steps clockwise after its twin.
+        for (RotationList<EdgeTail<MedialVertex>> rotation : rotations) {
+            int degree = rotation.size();
+            int[] out = new int[degree];
+            int i = 0;
+            for (EdgeTail<MedialVertex> t : rotation) {
+                out[i] = t.halfEdgeID();
+                tails[out[i]] = t;
+                i++;
+            }
+            for (i = 0; i < degree; i++) {
+                extension[out[i] ^ 1] = out[(i + 2) % degree];
+            }
+        }
+
+        int[] geodesicStarts = new int[maxID + 1];
+        int geodesics = 0;
+        for (int h = 0; h < numberOfHalfEdges; h += 2) {
+            if (tails[h] != null && geodesicOf[h >> 1] == NONE) {
+                int cur = h;
+                do {
+                    geodesicOf[cur >> 1] = geodesics;
+                    cur = extension[cur];
+                } while (cur != h);
+                geodesicStarts[geodesics++] = h;
+            }
+        }
+        starts = Arrays.copyOf(geodesicStarts, geodesics);
+        bound = geodesics;
+        count = geodesics;
+    }
+
+    /**
+     * Remove the geodesics through the specified medial vertices from the
+     * labeling, before the rotations of these vertices are replaced.
+     *
+     * <p>
+     * The graph must still be in the state that this labeling reflects. The
+     * cost is proportional to the total length of the removed geodesics.
+     *
+     * @param graph
+     *            the medial graph of this labeling
+     * @param affected
+     *            medial vertices whose rotations are about to be replaced,
+     *            may be absent
+     * @see #relabel(MedialGraph, Set)
+     */
+    void invalidate(MedialGraph graph, Set<MedialVertex> affected) {
+        List<RotationList<EdgeTail<MedialVertex>>> rotations = new ArrayList<>();
+        for (MedialVertex v : affected) {
+            if (graph.vertices()
+                     .contains(v)) {
+                rotations.add(graph.incidentEdgeTails(v));
+            }
+        }
+        for (RotationList<EdgeTail<MedialVertex>> rotation : rotations) {
+            for (EdgeTail<MedialVertex> t : rotation) {
+                int geodesic = geodesicOf[t.getID()];
+                if (geodesic != NONE) {
+                    int h = starts[geodesic];
+                    int cur = h;
+                    do {
+                        geodesicOf[cur >> 1] = NONE;
+                        cur = extension[cur];
+                    } while (cur != h);
+                    starts[geodesic] = NONE;
+                    freeIDs.push(geodesic);
+                    count--;
+                }
+            }
+        }
+        // the extensions of half edges entering these vertices will change
+        for (RotationList<EdgeTail<MedialVertex>> rotation : rotations) {
+            for (EdgeTail<MedialVertex> t : rotation) {
+                int h = t.halfEdgeID();
+                tails[h] = null;
+                extension[h ^ 1] = NONE;
+            }
+        }
+    }
+
+    /**
+     * Label the geodesics through the specified medial vertices after their
+     * rotations have been replaced.
+     *
+     * <p>
+     * Only the extensions at these vertices have changed since
+     * {@link #invalidate}, so every geodesic that has been removed there now
+     * passes through one of them, and vice versa. The cost is proportional to
+     * the total length of the new geodesics.
+     *
+     * @param graph
+     *            the updated medial graph of this labeling
+     * @param affected
+     *            the same vertices as for {@link #invalidate}
+     */
+    void relabel(MedialGraph graph, Set<MedialVertex> affected) {
+        List<int[]> rotations = new ArrayList<>();
+        for (MedialVertex v : affected) {
+            if (graph.vertices()
+                     .contains(v)) {
+                RotationList<EdgeTail<MedialVertex>> rotation = graph.incidentEdgeTails(v);
+                int[] out = new int[rotation.size()];
+                int i = 0;
+                for (EdgeTail<MedialVertex> t : rotation) {
+                    out[i] = t.halfEdgeID();
+                    ensureCapacity(out[i]);
+                    tails[out[i]] = t;
+                    i++;
+                }
+                rotations.add(out);
+            }
+        }
+        for (int[] out : rotations) {
+            for (int i = 0; i < out.length; i++) {
+                extension[out[i] ^ 1] = out[(i + 2) % out.length];
+            }
+        }
+        for (int[] out : rotations) {
+            for (int h : out) {
+                if (geodesicOf[h >> 1] == NONE) {
+                    label(h);
+                }
+            }
+        }
+    }
+
+    /**
+     * Label the unlabeled geodesic that contains the specified half edge with
+     * a free geodesic ID.
+     *
+     * @param h
+     *            a present half edge
+     */
+    private void label(int h) {
+        int geodesic;
+        if (freeIDs.isEmpty()) {
+            if (bound == starts.length) {
+                starts = Arrays.copyOf(starts, Math.max(2 * bound, 1));
+            }
+            geodesic = bound++;
+        } else {
+            geodesic = freeIDs.pop();
+        }
+        int least = h;
+        int cur = h;
+        do {
+            geodesicOf[cur >> 1] = geodesic;
+            least = Math.min(least, cur);
+            cur = extension[cur];
+        } while (cur != h);
+        starts[geodesic] = least & ~1;
+        count++;
+    }
+
+    /**
+     * Make sure that the arrays have room for the specified half edge ID.
+     *
+     * @param h
+     *            a half edge ID
+     */
+    private void ensureCapacity(int h) {
+        if (h < tails.length) {
+            return;
+        }
+        int numberOfHalfEdges = Math.max(2 * tails.length, (h | 1) + 1);
+        int oldLength = tails.length;
+        extension = Arrays.copyOf(extension, numberOfHalfEdges);
+        Arrays.fill(extension, oldLength, numberOfHalfEdges, NONE);
+        tails = Arrays.copyOf(tails, numberOfHalfEdges);
+        int oldEdges = geodesicOf.length;
+        geodesicOf = Arrays.copyOf(geodesicOf, numberOfHalfEdges / 2);
+        Arrays.fill(geodesicOf, oldEdges, geodesicOf.length, NONE);
+    }
+
+    /**
+     * Return the half edge ID of a labeled edge tail.
+     *
+     * @param tail
+     *            an edge tail
+     * @return half edge ID
+     * @throws NoSuchElementException
+     *             if the edge tail is not labeled
+     */
+    private int presentHalfEdgeID(EdgeTail<MedialVertex> tail) {
+        int h = tail.halfEdgeID();
+        if (h < 0 || h >= tails.length || tails[h] == null) {
+            throw new NoSuchElementException("No such edge tail: " + tail);
+        }
+        return h;
+    }
+
+    /**
+     * Return the edge tail object of a present half edge.
+     *
+     * @param h
+     *            half edge ID
+     * @return edge tail
+     */
+    @SuppressWarnings("unchecked")
+    private EdgeTail<MedialVertex> tail(int h) {
+        return (EdgeTail<MedialVertex>) tails[h];
+    }
+
+    /**
+     * Return the number of geodesics.
+     *
+     * @return number of geodesics
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Return an upper bound of the geodesic IDs.
+     *
+     * @return a number greater than every geodesic ID
+     */
+    int idBound() {
+        return bound;
+    }
+
+    /**
+     * Return the ID of the geodesic that contains the specified edge.
+     *
+     * <p>
+     * Geodesic IDs are non-negative and less than {@link #idBound()}. They are
+     * reused after updates, so there may be unused IDs in between.
+     *
+     * @param e
+     *            an edge of the medial graph
+     * @return geodesic ID
+     * @throws NoSuchElementException
+     *             if the edge is not labeled
+     */
+    int geodesicOf(UndirectedEdge<MedialVertex> e) {
+        int id = e.getID();
+        if (id < 0 || id >= geodesicOf.length || geodesicOf[id] == NONE) {
+            throw new NoSuchElementException("No geodesic for edge: " + e);
+        }
+        return geodesicOf[id];
+    }
+
+    /**
+     * Return the direct extension of the specified edge tail.
+     *
+     * @param tail
+     *            an edge tail of the medial graph
+     * @return direct extension edge tail
+     * @throws NoSuchElementException
+     *             if the edge tail is not labeled
+     * @see MedialGraph#directExtension(EdgeTail)
+     */
+    EdgeTail<MedialVertex> extension(EdgeTail<MedialVertex> tail) {
+        return tail(extension[presentHalfEdgeID(tail)]);
+    }
+
+    /**
+     * Return the edge tails of the geodesic circuit that starts with the
+     * specified edge tail, in the order of traversal.
+     *
+     * @param start
+     *            start edge of the geodesic circuit
+     * @return the list of edge tails, beginning with {@code start}
+     * @throws NoSuchElementException
+     *             if the edge tail is not labeled
+     */
+    List<EdgeTail<MedialVertex>> tailsFrom(EdgeTail<MedialVertex> start) {
+        int h = presentHalfEdgeID(start);
+        List<EdgeTail<MedialVertex>> edgeList = new ArrayList<>();
+        int cur = h;
+        do {
+            edgeList.add(tail(cur));
+            cur = extension[cur];
+        } while (cur != h);
+        return edgeList;
+    }
+
+    /**
+     * Return the geodesic circuit with the specified ID.
+     *
+     * @param geodesic
+     *            a geodesic ID in use
+     * @return the geodesic circuit
+     */
+    Circuit<MedialVertex> circuit(int geodesic) {
+        return new Circuit<>(tailsFrom(tail(starts[geodesic])));
+    }
+
+    /**
+     * Return the set of all geodesic circuits.
+     *
+     * @return the set of geodesic circuits
+     */
+    Set<Circuit<MedialVertex>> circuits() {
+        Set<Circuit<MedialVertex>> circuits = new HashSet<>();
+        for (int i = 0; i < bound; i++) {
+            if (starts[i] != NONE) {
+                circuits.add(circuit(i));
+            }
+        }
+        return circuits;
+    }
+
+}
@@ -0,0 +1,459 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * Rotation system stored in flat arrays indexed by half-edge IDs.
+ *
+ * <p>
+ * Every edge tail (half edge) is identified by the integer
+ * {@code 2 * edgeID + side}, where {@code side} is 0 for the left tail and 1
+ * for the right tail. Thus the twin of a half edge {@code h} is simply
+ * {@code h ^ 1}. The clockwise order around each vertex is stored as a doubly
+ * linked cyclic list in the arrays {@link #next} and {@link #prev}, and the
+ * source vertex of each half edge is stored in {@link #origin}. Vertices are
+ * indexed by their integer IDs.
+ *
+ * <p>
+ * The linear order of the rotation list of a vertex (i.e. which edge tail comes
+ * first) is maintained exactly like in {@link IncidenceMapRotationSystem}, so
+ * both backends produce the same results for the same sequence of operations.
+ *
+ * @param <V>
+ *            the type of vertices
+ */
+class HalfEdgeRotationSystem<V extends Vertex<V>> extends RotationSystem<V> {
+
+    /**
+     * Marker for absent half edges and vertices.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Initial capacity of the half edge arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Clockwise next half edge around the origin of each half edge.
+     */
+    private int[] next;
+
+    /**
+     * Clockwise previous half edge around the origin of each half edge.
+     */
+    private int[] prev;
+
+    /**
+     * ID of the source vertex of each half edge, or {@link #NONE} if the half
+     * edge is absent.
+     */
+    private int[] origin;
+
+    /**
+     * Edge tail object of each half edge, or null if the half edge is absent.
+     */
+    private Object[] tails;
+
+    /**
+     * First half edge in the rotation list of each vertex, or {@link #NONE}.
+     */
+    private int[] first;
+
+    /**
+     * Number of outgoing half edges of each vertex.
+     */
+    private int[] degrees;
+
+    /**
+     * Vertex object for each vertex ID, or null if the vertex is absent.
+     */
+    private Object[] vertexObjects;
+
+    /**
+     * Number of present vertices.
+     */
+    private int vertexCount;
+
+    /**
+     * Create an empty rotation system.
+     */
+    HalfEdgeRotationSystem() {
+        next = new int[INITIAL_CAPACITY];
+        prev = new int[INITIAL_CAPACITY];
+        origin = new int[INITIAL_CAPACITY];
+        Arrays.fill(origin, NONE);
+        tails = new Object[INITIAL_CAPACITY];
+        first = new int[INITIAL_CAPACITY];
+        Arrays.fill(first, NONE);
+        degrees = new int[INITIAL_CAPACITY];
+        vertexObjects = new Object[INITIAL_CAPACITY];
+        vertexCount = 0;
+    }
+
+    /**
+     * Create a rotation system with the same content as the specified one.
+     *
+     * @param source
+     *            the rotation system to convert
+     */
+    HalfEdgeRotationSystem(RotationSystem<V> source) {
+        this();
+        for (V v : source.vertices()) {
+            addVertex(v, source.rotation(v));
+        }
+    }
+
+    /**
+     * Create a copy of the specified rotation system.
+     *
+     * @param original
+     *            the rotation system to copy
+     */
+    private HalfEdgeRotationSystem(HalfEdgeRotationSystem<V> original) {
+        next = original.next.clone();
+        prev = original.prev.clone();
+        origin = original.origin.clone();
+        tails = original.tails.clone();
+        first = original.first.clone();
+        degrees = original.degrees.clone();
+        vertexObjects = original.vertexObjects.clone();
+        vertexCount = original.vertexCount;
+    }
+
+    /**
+     * Return the half edge ID of the specified edge tail, making sure it can
+     * be used as an array index.
+     *
+     * @param tail
+     *            an edge tail
+     * @return half edge ID
+     * @throws IllegalArgumentException
+     *             if the edge ID is negative
+     * @see EdgeTail#halfEdgeID()
+     */
+    private static int halfEdgeID(EdgeTail<?> tail) {
+        if (tail.getID() < 0) {
+            throw new IllegalArgumentException("Negative edge ID: " + tail.getID());
+        }
+        return tail.halfEdgeID();
+    }
+
+    /**
+     * Return the ID of the specified vertex.
+     *
+     * @param v
+     *            a vertex
+     * @return vertex ID
+     */
+    private static int vertexID(Vertex<?> v) {
+        int id = v.getID();
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative vertex ID: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Return whether the specified half edge is present.
+     *
+     * @param h
+     *            half edge ID
+     * @return true if the half edge is present
+     */
+    private boolean isPresent(int h) {
+        return h < tails.length && tails[h] != null;
+    }
+
+    /**
+     * Return the edge tail object of a present half edge.
+     *
+     * @param h
+     *            half edge ID
+     * @return edge tail
+     */
+    @SuppressWarnings("unchecked")
+    private EdgeTail<V> tail(int h) {
+        return (EdgeTail<V>) tails[h];
+    }
+
+    /**
+     * Return the vertex ID of the specified vertex, making sure it is present.
+     *
+     * @param v
+     *            a vertex
+     * @return vertex ID
+     * @throws NoSuchElementException
+     *             if the vertex is not present
+     */
+    private int presentVertexID(V v) {
+        int id = vertexID(v);
+        if (id >= vertexObjects.length || vertexObjects[id] == null) {
+            throw new NoSuchElementException("No such vertex: " + v);
+        }
+        return id;
+    }
+
+    /**
+     * Grow the half edge arrays such that the specified ID fits.
+     *
+     * @param h
+     *            half edge ID
+     */
+    private void ensureHalfEdgeCapacity(int h) {
+        if (h < tails.length) {
+            return;
+        }
+        int oldLength = tails.length;
+        int newLength = Math.max(h + 1, 2 * oldLength);
+        next = Arrays.copyOf(next, newLength);
+        prev = Arrays.copyOf(prev, newLength);
+        origin = Arrays.copyOf(origin, newLength);
+        Arrays.fill(origin, oldLength, newLength, NONE);
+        tails = Arrays.copyOf(tails, newLength);
+    }
+
+    /**
+     * Grow the vertex arrays such that the specified ID fits.
+     *
+     * @param id
+     *            vertex ID
+     */
+    private void ensureVertexCapacity(int id) {
+        if (id < vertexObjects.length) {
+            return;
+        }
+        int oldLength = vertexObjects.length;
+        int newLength = Math.max(id + 1, 2 * oldLength);
+        first = Arrays.copyOf(first, newLength);
+        Arrays.fill(first, oldLength, newLength, NONE);
+        degrees = Arrays.copyOf(degrees, newLength);
+        vertexObjects = Arrays.copyOf(vertexObjects, newLength);
+    }
+
+    /**
+     * Link a new half edge into the rotation of its origin vertex, directly
+     * clockwise after {@code ref}, or as the only element if {@code ref} is
+     * {@link #NONE}.
+     *
+     * @param h
+     *            the new half edge
+     * @param ref
+     *            the reference half edge
+     */
+    private void linkAfter(int h, int ref) {
+        if (ref == NONE) {
+            next[h] = h;
+            prev[h] = h;
+        } else {
+            int succ = next[ref];
+            next[ref] = h;
+            prev[h] = ref;
+            next[h] = succ;
+            prev[succ] = h;
+        }
+    }
+
+    @Override
+    Set<V> vertices() {
+        return new AbstractSet<V>() {
+
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<V>() {
+
+                    private int cursor = advance(0);
+
+                    private int advance(int from) {
+                        int id = from;
+                        while (id < vertexObjects.length && vertexObjects[id] == null) {
+                            id++;
+                        }
+                        return id;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return cursor < vertexObjects.length;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public V next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        V v = (V) vertexObjects[cursor];
+                        cursor = advance(cursor + 1);
+                        return v;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return vertexCount;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Vertex)) {
+                    return false;
+                }
+                int id = ((Vertex<?>) o).getID();
+                return id >= 0 && id < vertexObjects.length
+                        && o.equals(vertexObjects[id]);
+            }
+        };
+    }
+
+    @Override
+    boolean containsVertex(V v) {
+        int id = v.getID();
+        return id >= 0 && id < vertexObjects.length && vertexObjects[id] != null;
+    }
+
+    @Override
+    boolean containsTail(EdgeTail<V> tail) {
+        int h = halfEdgeID(tail);
+        return isPresent(h) && origin[h] == tail.getSource()
+                                                .getID();
+    }
+
+    @Override
+    int degree(V v) {
+        return degrees[presentVertexID(v)];
+    }
+
+    @Override
+    RotationList<EdgeTail<V>> rotation(V v) {
+        int id = presentVertexID(v);
+        RotationList<EdgeTail<V>> list = new RotationList<>();
+        int h = first[id];
+        for (int i = 0; i < degrees[id]; i++) {
+            list.add(tail(h));
+            h = next[h];
+        }
+        return list;
+    }
+
+    @Override
+    EdgeTail<V> firstTail(V v) {
+        int id = presentVertexID(v);
+        if (degrees[id] == 0) {
+            throw new NoSuchElementException("No edge tails at vertex: " + v);
+        }
+        return tail(first[id]);
+    }
+
+    @Override
+    EdgeTail<V> rotate(EdgeTail<V> tail, RotationDirection dir) {
+        int h = halfEdgeID(tail);
+        if (!isPresent(h)) {
+            throw new NoSuchElementException("No such edge tail: " + tail);
+        }
+        if (dir == RotationDirection.CLOCKWISE) {
+            return tail(next[h]);
+        } // else: COUNTERCLOCKWISE
+        return tail(prev[h]);
+    }
+
+    @Override
+    void addVertex(V v, List<EdgeTail<V>> vTails) {
+        int id = vertexID(v);
+        ensureVertexCapacity(id);
+        vertexObjects[id] = v;
+        vertexCount++;
+        first[id] = NONE;
+        degrees[id] = 0;
+        for (EdgeTail<V> t : vTails) {
+            int h = halfEdgeID(t);
+            ensureHalfEdgeCapacity(h);
+            tails[h] = t;
+            origin[h] = id;
+            linkAfter(h, first[id] == NONE ? NONE : prev[first[id]]);
+            if (first[id] == NONE) {
+                first[id] = h;
+            }
+            degrees[id]++;
+        }
+    }
+
+    @Override
+    void removeVertex(V v) {
+        int id = vertexID(v);
+        if (id >= vertexObjects.length || vertexObjects[id] == null) {
+            return;
+        }
+        int h = first[id];
+        for (int i = 0; i < degrees[id]; i++) {
+            int succ = next[h];
+            tails[h] = null;
+            origin[h] = NONE;
+            h = succ;
+        }
+        first[id] = NONE;
+        degrees[id] = 0;
+        vertexObjects[id] = null;
+        vertexCount--;
+    }
+
+    @Override
+    void insertTail(EdgeTail<V> newTail, EdgeTail<V> refTail, RotationDirection dir) {
+        int id = presentVertexID(newTail.getSource());
+        int ref = halfEdgeID(refTail);
+        if (!isPresent(ref) || origin[ref] != id) {
+            throw new NonIncidenceException();
+        }
+        int h = halfEdgeID(newTail);
+        ensureHalfEdgeCapacity(h);
+        tails[h] = newTail;
+        origin[h] = id;
+        if (dir == RotationDirection.CLOCKWISE) {
+            linkAfter(h, ref);
+        } else { // COUNTERCLOCKWISE
+            linkAfter(h, prev[ref]);
+            if (first[id] == ref) {
+                first[id] = h;
+            }
+        }
+        degrees[id]++;
+    }
+
+    @Override
+    void removeTail(EdgeTail<V> tail) {
+        int h = halfEdgeID(tail);
+        if (!isPresent(h)) {
+            return;
+        }
+        int id = origin[h];
+        if (degrees[id] == 1) {
+            first[id] = NONE;
+        } else {
+            next[prev[h]] = next[h];
+            prev[next[h]] = prev[h];
+            if (first[id] == h) {
+                first[id] = next[h];
+            }
+        }
+        tails[h] = null;
+        origin[h] = NONE;
+        degrees[id]--;
+    }
+
+    @Override
+    void prepareConcurrentReads() {
+        // queries only read the half-edge arrays
+    }
+
+    @Override
+    RotationSystem<V> copy() {
+        return new HalfEdgeRotationSystem<>(this);
+    }
+
+    @Override
+    PlaneGraph.Backend getBackend() {
+        return PlaneGraph.Backend.HALF_EDGE;
+    }
+
+}
@@ -0,0 +1,126 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * Rotation system stored as a mapping from vertices to a list of their
+ * incident edge tails in rotation order.
+ *
+ * @param <V>
+ *            the type of vertices
+ */
+class IncidenceMapRotationSystem<V extends Vertex<V>> extends RotationSystem<V> {
+
+    /**
+     * A representation of a plane graph in the form of a mapping from vertices
+     * to a list of their incident edges in rotation order.
+     */
+    private final Map<V, RotationList<EdgeTail<V>>> incidenceMap;
+
+    /**
+     * Create a rotation system backed by the specified incidence map.
+     *
+     * <p>
+     * The map is used directly, not copied.
+     *
+     * @param incidenceMap
+     *            incidence map representation
+     */
+    IncidenceMapRotationSystem(Map<V, RotationList<EdgeTail<V>>> incidenceMap) {
+        this.incidenceMap = incidenceMap;
+    }
+
+    /**
+     * Return the list of edge tails at the specified vertex.
+     *
+     * @param v
+     *            some vertex
+     * @return the internal list of edge tails
+     * @throws NoSuchElementException
+     *             if the vertex is not present
+     */
+    private RotationList<EdgeTail<V>> tailsAt(V v) {
+        RotationList<EdgeTail<V>> tails = incidenceMap.get(v);
+        if (tails == null) {
+            throw new NoSuchElementException("No such vertex: " + v);
+        }
+        return tails;
+    }
+
+    @Override
+    Set<V> vertices() {
+        return Collections.unmodifiableSet(incidenceMap.keySet());
+    }
+
+    @Override
+    boolean containsVertex(V v) {
+        return incidenceMap.containsKey(v);
+    }
+
+    @Override
+    boolean containsTail(EdgeTail<V> tail) {
+        RotationList<EdgeTail<V>> tails = incidenceMap.get(tail.getSource());
+        return tails != null && tails.contains(tail);
+    }
+
+    @Override
+    int degree(V v) {
+        return tailsAt(v).size();
+    }
+
+    @Override
+    RotationList<EdgeTail<V>> rotation(V v) {
+        return new RotationList<>(tailsAt(v));
+    }
+
+    @Override
+    EdgeTail<V> firstTail(V v) {
+        return tailsAt(v).getFirst();
+    }
+
+    @Override
+    EdgeTail<V> rotate(EdgeTail<V> tail, RotationDirection dir) {
+        return tailsAt(tail.getSource()).rotateAt(tail, dir);
+    }
+
+    @Override
+    void addVertex(V v, List<EdgeTail<V>> tails) {
+        incidenceMap.put(v, new RotationList<>(tails));
+    }
+
+    @Override
+    void removeVertex(V v) {
+        incidenceMap.remove(v);
+    }
+
+    @Override
+    void insertTail(EdgeTail<V> newTail, EdgeTail<V> refTail, RotationDirection dir) {
+        if (!tailsAt(newTail.getSource()).addNextTo(refTail, newTail, dir)) {
+            throw new NonIncidenceException();
+        }
+    }
+
+    @Override
+    void removeTail(EdgeTail<V> tail) {
+        tailsAt(tail.getSource()).remove(tail);
+    }
+
+    @Override
+    void prepareConcurrentReads() {
+        incidenceMap.values()
+                    .forEach(RotationList::buildPositions);
+    }
+
+    @Override
+    RotationSystem<V> copy() {
+        Map<V, RotationList<EdgeTail<V>>> newIncidenceMap = new HashMap<>();
+        incidenceMap.forEach((k, v) -> newIncidenceMap.put(k, new RotationList<>(v)));
+        return new IncidenceMapRotationSystem<>(newIncidenceMap);
+    }
+
+    @Override
+    PlaneGraph.Backend getBackend() {
+        return PlaneGraph.Backend.INCIDENCE_MAP;
+    }
+
+}
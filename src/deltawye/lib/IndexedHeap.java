@@ -0,0 +1,266 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * A binary min-heap that knows the position of each of its elements.
+ *
+ * <p>
+ * In addition to the usual priority queue operations, arbitrary elements can be
+ * removed or replaced by an element with a different priority (decrease-key and
+ * increase-key) in logarithmic time.
+ *
+ * <p>
+ * Elements are identified by {@link Object#equals(Object)}; each element can be
+ * contained at most once.
+ *
+ * @param <E>
+ *            the type of elements
+ */
+class IndexedHeap<E> {
+
+    /**
+     * The ordering of the elements; the least element is at the top.
+     */
+    private final Comparator<? super E> comparator;
+
+    /**
+     * The heap array.
+     */
+    private final List<E> heap;
+
+    /**
+     * Mapping from elements to their positions in the heap array.
+     */
+    private final Map<E, Integer> positions;
+
+    /**
+     * Create an empty heap.
+     *
+     * @param comparator
+     *            the ordering of the elements
+     */
+    IndexedHeap(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        heap = new ArrayList<>();
+        positions = new HashMap<>();
+    }
+
+    /**
+     * Return the number of elements.
+     *
+     * @return size of the heap
+     */
+    int size() {
+        return heap.size();
+    }
+
+    /**
+     * Return whether the heap is empty.
+     *
+     * @return true if the heap is empty
+     */
+    boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * Return whether the heap contains the specified element.
+     *
+     * @param e
+     *            some element
+     * @return true if the element is contained
+     */
+    boolean contains(Object e) {
+        return positions.containsKey(e);
+    }
+
+    /**
+     * Return the least element without removing it.
+     *
+     * @return the least element, or null if the heap is empty
+     */
+    E peek() {
+        return heap.isEmpty() ? null : heap.get(0);
+    }
+
+    /**
+     * Return the element at the specified position of the heap array.
+     *
+     * <p>
+     * The order of the heap array is unspecified, but this can be used for
+     * picking a uniformly random element.
+     *
+     * @param index
+     *            position in the heap array
+     * @return element
+     */
+    E get(int index) {
+        return heap.get(index);
+    }
+
+    /**
+     * Add an element.
+     *
+     * @param e
+     *            the new element
+     * @throws IllegalArgumentException
+     *             if the element is already contained
+     */
+    void add(E e) {
+        if (positions.containsKey(e)) {
+            throw new IllegalArgumentException("Element already in heap: " + e);
+        }
+        heap.add(e);
+        positions.put(e, heap.size() - 1);
+        siftUp(heap.size() - 1);
+    }
+
+    /**
+     * Remove the specified element.
+     *
+     * @param e
+     *            the element to remove
+     * @return true if the element was contained
+     */
+    boolean remove(Object e) {
+        Integer pos = positions.remove(e);
+        if (pos == null) {
+            return false;
+        }
+        E last = heap.remove(heap.size() - 1);
+        if (pos < heap.size()) {
+            heap.set(pos, last);
+            positions.put(last, pos);
+            sift(pos);
+        }
+        return true;
+    }
+
+    /**
+     * Remove and return the least element.
+     *
+     * @return the least element, or null if the heap is empty
+     */
+    E poll() {
+        E top = peek();
+        if (top != null) {
+            remove(top);
+        }
+        return top;
+    }
+
+    /**
+     * Replace an element by a new element that may have a different priority.
+     *
+     * <p>
+     * The new element takes the position of the old one and is then moved up or
+     * down as required.
+     *
+     * @param oldElement
+     *            an element in the heap
+     * @param newElement
+     *            the new element
+     * @throws NoSuchElementException
+     *             if the old element is not contained
+     */
+    void replace(E oldElement, E newElement) {
+        Integer pos = positions.remove(oldElement);
+        if (pos == null) {
+            throw new NoSuchElementException("Element not in heap: " + oldElement);
+        }
+        heap.set(pos, newElement);
+        positions.put(newElement, pos);
+        sift(pos);
+    }
+
+    /**
+     * Restore the heap property at the specified position.
+     *
+     * @param pos
+     *            position in the heap array
+     */
+    private void sift(int pos) {
+        if (pos > 0 && less(pos, (pos - 1) / 2)) {
+            siftUp(pos);
+        } else {
+            siftDown(pos);
+        }
+    }
+
+    /**
+     * Move the element at the specified position up.
+     *
+     * @param pos
+     *            position in the heap array
+     */
+    private void siftUp(int pos) {
+        int child = pos;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (!less(child, parent)) {
+                break;
+            }
+            swap(child, parent);
+            child = parent;
+        }
+    }
+
+    /**
+     * Move the element at the specified position down.
+     *
+     * @param pos
+     *            position in the heap array
+     */
+    private void siftDown(int pos) {
+        int parent = pos;
+        while (true) {
+            int least = parent;
+            int left = 2 * parent + 1;
+            int right = left + 1;
+            if (left < heap.size() && less(left, least)) {
+                least = left;
+            }
+            if (right < heap.size() && less(right, least)) {
+                least = right;
+            }
+            if (least == parent) {
+                break;
+            }
+            swap(parent, least);
+            parent = least;
+        }
+    }
+
+    /**
+     * Return whether the element at position {@code i} is less than the
+     * element at position {@code j}.
+     *
+     * @param i
+     *            position in the heap array
+     * @param j
+     *            position in the heap array
+     * @return true if the first element is less
+     */
+    private boolean less(int i, int j) {
+        return comparator.compare(heap.get(i), heap.get(j)) < 0;
+    }
+
+    /**
+     * Swap the elements at the specified positions.
+     *
+     * @param i
+     *            position in the heap array
+     * @param j
+     *            position in the heap array
+     */
+    private void swap(int i, int j) {
+        E ei = heap.get(i);
+        E ej = heap.get(j);
+        heap.set(i, ej);
+        heap.set(j, ei);
+        positions.put(ej, i);
+        positions.put(ei, j);
+    }
+
+}
@@ -0,0 +1,101 @@
+package deltawye.lib;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * A mapping from non-negative element IDs to int values, which are 0 unless
+ * set otherwise.
+ *
+ * <p>
+ * Values of IDs below a limit are stored in a primitive array indexed by ID
+ * (see {@link DenseTable}); the limit is queried whenever the array would
+ * grow. Setting a value to 0 outside the array removes its map entry.
+ */
+class IntTable extends DenseTable<Integer> {
+
+    /**
+     * The exclusive upper bound for IDs that the value array may grow to hold.
+     */
+    private final IntSupplier denseLimit;
+
+    /**
+     * Values of small IDs.
+     */
+    private int[] values;
+
+    /**
+     * Create a table in which all values are 0.
+     *
+     * @param denseLimit
+     *            supplier of the exclusive upper bound for IDs that are stored
+     *            in the value array
+     */
+    IntTable(IntSupplier denseLimit) {
+        this.denseLimit = denseLimit;
+        values = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    int capacity() {
+        return values.length;
+    }
+
+    @Override
+    int denseLimit() {
+        return denseLimit.getAsInt();
+    }
+
+    @Override
+    void resize(int length) {
+        values = Arrays.copyOf(values, length);
+    }
+
+    @Override
+    void moveToDense(int id, Integer value) {
+        values[id] = value;
+    }
+
+    /**
+     * Return the value of the specified ID.
+     *
+     * @param id
+     *            element ID
+     * @return value, 0 if it has never been set
+     */
+    int get(int id) {
+        if (isDense(id)) {
+            return values[id];
+        }
+        return sparse.getOrDefault(id, 0);
+    }
+
+    /**
+     * Set the value of the specified ID.
+     *
+     * @param id
+     *            element ID
+     * @param value
+     *            the new value
+     * @throws IllegalArgumentException
+     *             if the ID is negative
+     */
+    void set(int id, int value) {
+        if (reserve(id)) {
+            values[id] = value;
+        } else if (value == 0) {
+            sparse.remove(id);
+        } else {
+            sparse.put(id, value);
+        }
+    }
+
+    /**
+     * Set all values to 0.
+     */
+    void clear() {
+        Arrays.fill(values, 0);
+        sparse.clear();
+    }
+
+}
@@ -0,0 +1,156 @@
+package deltawye.lib;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * A table of canonical instances of graph elements, indexed by their integer
+ * IDs.
+ *
+ * <p>
+ * Readers and graphs use an intern table to hand out a single instance per
+ * element ID instead of allocating an equal copy for every occurrence. Equality
+ * checks between canonical instances then succeed on the reference check at the
+ * start of {@code equals}, and hash-based collections store fewer distinct
+ * objects.
+ *
+ * <p>
+ * IDs are usually small and compact, so they index an array directly (see
+ * {@link DenseTable}). The array only grows up to a length proportional to
+ * the number of stored elements.
+ *
+ * @param <E>
+ *            the type of elements
+ */
+class InternTable<E> extends DenseTable<E> {
+
+    /**
+     * Canonical instance for each small ID, or null if there is none.
+     */
+    private Object[] elements;
+
+    /**
+     * Number of canonical instances.
+     */
+    private int size;
+
+    /**
+     * Create an empty intern table.
+     */
+    InternTable() {
+        elements = new Object[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    int denseLimit() {
+        return 2 * size + INITIAL_CAPACITY;
+    }
+
+    @Override
+    void resize(int length) {
+        elements = Arrays.copyOf(elements, length);
+    }
+
+    @Override
+    void moveToDense(int id, E value) {
+        elements[id] = value;
+    }
+
+    /**
+     * Return the number of canonical instances.
+     *
+     * @return number of canonical instances
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return the canonical instance with the specified ID.
+     *
+     * @param id
+     *            element ID
+     * @return the canonical instance, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    E get(int id) {
+        if (isDense(id)) {
+            return (E) elements[id];
+        }
+        return sparse.get(id);
+    }
+
+    /**
+     * Make the specified element the canonical instance for its ID.
+     *
+     * @param id
+     *            element ID
+     * @param e
+     *            the new canonical instance
+     * @throws IllegalArgumentException
+     *             if the ID is negative
+     */
+    void put(int id, E e) {
+        Object old;
+        if (reserve(id)) {
+            old = elements[id];
+            elements[id] = e;
+        } else {
+            old = sparse.put(id, e);
+        }
+        if (old == null) {
+            size++;
+        }
+    }
+
+    /**
+     * Remove the canonical instance with the specified ID, if there is one.
+     *
+     * @param id
+     *            element ID
+     */
+    void remove(int id) {
+        Object old;
+        if (isDense(id)) {
+            old = elements[id];
+            elements[id] = null;
+        } else {
+            old = sparse.remove(id);
+        }
+        if (old != null) {
+            size--;
+        }
+    }
+
+    /**
+     * Return the canonical instance with the specified ID, creating it if
+     * there is none.
+     *
+     * <p>
+     * Elements with negative IDs are not interned: a new element is created on
+     * every call.
+     *
+     * @param id
+     *            element ID
+     * @param factory
+     *            function that creates a new element from its ID
+     * @return the canonical instance
+     */
+    E intern(int id, IntFunction<? extends E> factory) {
+        E e = get(id);
+        if (e == null) {
+            e = factory.apply(id);
+            if (id >= 0) {
+                put(id, e);
+            }
+        }
+        return e;
+    }
+
+}
@@ -1,8 +1,6 @@
 package deltawye.lib;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
 
 /**
  * A lens is a plane subgraph of a medial graph.
@@ -10,8 +8,19 @@ import java.util.TreeSet;
  * <p>
  * This class models 2-lenses which have exactly two boundaries.
  *
+ * <p>
+ * A lens is a view of its medial graph: It consists of the two boundary walks
+ * and the set of inner vertices, and its edges and faces are those of the
+ * subgraph induced by these vertices. The lens must not be used after the
+ * medial graph has changed around it.
+ *
  */
-public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
+public class Lens implements Comparable<Lens> {
+
+    /**
+     * The medial graph that contains the lens.
+     */
+    private final MedialGraph medialGraph;
 
     /**
      * The left boundary of the lens.
@@ -24,20 +33,179 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
     private final Walk<MedialVertex> rightBoundary;
 
     /**
-     * Construct a Lens from an incidence map.
+     * The vertices on both boundaries.
+     */
+    private final Set<MedialVertex> boundaryVertices;
+
+    /**
+     * The IDs of the inner vertices of the lens.
+     */
+    private final BitSet innerVertices;
+
+    /**
+     * Mapping from the edge tails of the lens to their faces.
+     */
+    private final Map<EdgeTail<MedialVertex>, Circuit<MedialVertex>> faceMap;
+
+    /**
+     * The faces of the lens.
+     */
+    private final Set<Circuit<MedialVertex>> faceSet;
+
+    /**
+     * The number of inner faces of the lens.
+     */
+    private final int innerFaceCount;
+
+    /**
+     * The inner faces of the lens that are incident to a boundary edge.
+     */
+    private final NavigableSet<Circuit<MedialVertex>> boundaryFaceSet;
+
+    /**
+     * The hash code of the lens, which only depends on its boundaries.
+     */
+    private final int hash;
+
+    /**
+     * Construct a lens in the specified medial graph.
+     *
+     * <p>
+     * The faces of the lens and the metrics that are needed for comparing
+     * lenses are computed once here, as they do not change while the lens is
+     * valid.
      *
-     * @param incidenceMap
-     *            the incidence map of the lens graph
+     * @param medialGraph
+     *            the medial graph that contains the lens
      * @param leftBoundary
      *            left boundary of the lens
      * @param rightBoundary
      *            right boundary of the lens
+     * @param innerVertices
+     *            the IDs of the inner vertices of the lens
      */
-    public Lens(Map<MedialVertex, RotationList<EdgeTail<MedialVertex>>> incidenceMap,
-            Walk<MedialVertex> leftBoundary, Walk<MedialVertex> rightBoundary) {
-        super(incidenceMap);
+    Lens(MedialGraph medialGraph, Walk<MedialVertex> leftBoundary,
+            Walk<MedialVertex> rightBoundary, BitSet innerVertices) {
+        this.medialGraph = medialGraph;
         this.leftBoundary = leftBoundary;
         this.rightBoundary = rightBoundary;
+        this.innerVertices = innerVertices;
+        boundaryVertices = leftBoundary.vertices();
+        boundaryVertices.addAll(rightBoundary.vertices());
+        faceMap = new HashMap<>();
+        faceSet = new HashSet<>();
+        traceFaces();
+        innerFaceCount = faceSet.size() - 1;
+        boundaryFaceSet = Collections.unmodifiableNavigableSet(traceBoundaryFaces());
+        hash = 31 * (31 + leftBoundary.hashCode()) + rightBoundary.hashCode();
+    }
+
+    /**
+     * Return the left boundary of the lens, directed from the south pole to the
+     * north pole.
+     *
+     * @return the left boundary
+     */
+    public Walk<MedialVertex> getLeftBoundary() {
+        return leftBoundary;
+    }
+
+    /**
+     * Return the right boundary of the lens, directed from the south pole to
+     * the north pole.
+     *
+     * @return the right boundary
+     */
+    public Walk<MedialVertex> getRightBoundary() {
+        return rightBoundary;
+    }
+
+    /**
+     * Return the south pole of the lens, i.e. the common start vertex of both
+     * boundaries.
+     *
+     * @return the south pole
+     */
+    public MedialVertex getSouthPole() {
+        return leftBoundary.getStartVertex();
+    }
+
+    /**
+     * Return the north pole of the lens, i.e. the common end vertex of both
+     * boundaries.
+     *
+     * @return the north pole
+     */
+    public MedialVertex getNorthPole() {
+        return leftBoundary.getEndVertex();
+    }
+
+    /**
+     * Return whether the specified vertex belongs to the lens.
+     *
+     * @param v
+     *            the vertex to test
+     * @return true if the vertex is a boundary or inner vertex of the lens
+     */
+    public boolean contains(MedialVertex v) {
+        return boundaryVertices.contains(v) || innerVertices.get(v.getID());
+    }
+
+    /**
+     * Return the set of vertices of the lens.
+     *
+     * @return the set of vertices
+     */
+    public Set<MedialVertex> vertices() {
+        Set<MedialVertex> vertices = new HashSet<>(boundaryVertices);
+        Deque<MedialVertex> queue = new ArrayDeque<>(boundaryVertices);
+        while (!queue.isEmpty()) {
+            for (MedialVertex w : medialGraph.neighbors(queue.poll())) {
+                if (innerVertices.get(w.getID()) && vertices.add(w)) {
+                    queue.add(w);
+                }
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * Return the number of vertices of the lens.
+     *
+     * @return number of vertices
+     */
+    public int order() {
+        return boundaryVertices.size() + innerVertices.cardinality();
+    }
+
+    /**
+     * Return the set of edge tails of the lens.
+     *
+     * @return the set of edge tails
+     */
+    public Set<EdgeTail<MedialVertex>> edgeTails() {
+        Set<EdgeTail<MedialVertex>> edgeTails = new HashSet<>();
+        for (MedialVertex v : vertices()) {
+            for (EdgeTail<MedialVertex> e : medialGraph.incidentEdgeTails(v)) {
+                if (contains(e.getTarget())) {
+                    edgeTails.add(e);
+                }
+            }
+        }
+        return edgeTails;
+    }
+
+    /**
+     * Return the set of edges of the lens.
+     *
+     * @return the set of edges
+     */
+    public Set<UndirectedEdge<MedialVertex>> edges() {
+        Set<UndirectedEdge<MedialVertex>> edges = new HashSet<>();
+        for (EdgeTail<MedialVertex> e : edgeTails()) {
+            edges.add(e.getEdge());
+        }
+        return edges;
     }
 
     /**
@@ -80,7 +248,86 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
      * @return true if the vertex is part of the lens boundary
      */
     public boolean isBoundaryVertex(MedialVertex v) {
-        return leftBoundary.contains(v) || rightBoundary.contains(v);
+        return boundaryVertices.contains(v);
+    }
+
+    /**
+     * Return the edge tail that follows the specified edge tail on the
+     * boundary of a face of the lens.
+     *
+     * <p>
+     * This is {@link PlaneGraph#nextEdge} in the medial graph, except that
+     * edges leaving the lens are skipped.
+     *
+     * @param edge
+     *            an edge tail of the lens
+     * @return the clockwise next edge tail of the lens
+     */
+    private EdgeTail<MedialVertex> nextEdge(EdgeTail<MedialVertex> edge) {
+        EdgeTail<MedialVertex> cur = medialGraph.nextEdge(edge,
+                RotationDirection.CLOCKWISE);
+        while (!contains(cur.getTarget())) {
+            // rotate clockwise around the same vertex
+            cur = medialGraph.nextEdge(cur.otherSide(), RotationDirection.CLOCKWISE);
+        }
+        return cur;
+    }
+
+    /**
+     * Return the face of the lens that contains the specified edge tail.
+     *
+     * @param start
+     *            an edge tail of the lens
+     * @return the containing face circuit
+     */
+    public Circuit<MedialVertex> getFace(EdgeTail<MedialVertex> start) {
+        Circuit<MedialVertex> face = faceMap.get(start);
+        if (face != null) {
+            return face;
+        }
+        return traceFace(start);
+    }
+
+    /**
+     * Trace the face of the lens that contains the specified edge tail.
+     *
+     * @param start
+     *            an edge tail of the lens
+     * @return the containing face circuit
+     */
+    private Circuit<MedialVertex> traceFace(EdgeTail<MedialVertex> start) {
+        List<EdgeTail<MedialVertex>> faceEdges = new ArrayList<>();
+        faceEdges.add(start);
+        EdgeTail<MedialVertex> cur = nextEdge(start);
+        while (!cur.equals(start)) {
+            faceEdges.add(cur);
+            cur = nextEdge(cur);
+        }
+        return new Circuit<>(faceEdges);
+    }
+
+    /**
+     * Trace all faces of the lens.
+     */
+    private void traceFaces() {
+        for (EdgeTail<MedialVertex> e : edgeTails()) {
+            if (!faceMap.containsKey(e)) {
+                Circuit<MedialVertex> face = traceFace(e);
+                for (EdgeTail<MedialVertex> f : face.edges()) {
+                    faceMap.put(f, face);
+                }
+                faceSet.add(face);
+            }
+        }
+    }
+
+    /**
+     * Return the set of faces of the lens, including the outer face.
+     *
+     * @return the set of faces
+     */
+    public Set<Circuit<MedialVertex>> faces() {
+        return Collections.unmodifiableSet(faceSet);
     }
 
     /**
@@ -92,13 +339,21 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
      * @return the set of inner faces
      */
     public Set<Circuit<MedialVertex>> innerFaces() {
-        Circuit<MedialVertex> outerFace = getFace(leftBoundary.edgeList()
-                                                              .getFirst());
-        Set<Circuit<MedialVertex>> faces = faces();
-        faces.remove(outerFace);
+        Set<Circuit<MedialVertex>> faces = new HashSet<>(faces());
+        faces.remove(outerFace());
         return faces;
     }
 
+    /**
+     * Return the outer face of the lens.
+     *
+     * @return the outer face
+     */
+    private Circuit<MedialVertex> outerFace() {
+        return getFace(leftBoundary.edgeList()
+                                   .getFirst());
+    }
+
     /**
      * Return the number of inner faces of a lens.
      *
@@ -109,25 +364,36 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
      * @return the number of inner faces
      */
     public int numberOfInnerFaces() {
-        return innerFaces().size();
+        return innerFaceCount;
     }
 
     /**
      * Return the set of faces that are incident to a boundary edge of the lens.
      *
      * <p>
-     * This method returns a TreeSet in order to allow direct access to the
+     * This method returns a sorted set in order to allow direct access to the
      * smallest and largest boundary faces.
      *
+     * @return unmodifiable set of boundary faces
+     */
+    public NavigableSet<Circuit<MedialVertex>> boundaryFaces() {
+        return boundaryFaceSet;
+    }
+
+    /**
+     * Trace the faces that are incident to a boundary edge of the lens.
+     *
      * @return the set of boundary faces
      */
-    public TreeSet<Circuit<MedialVertex>> boundaryFaces() {
+    private TreeSet<Circuit<MedialVertex>> traceBoundaryFaces() {
         TreeSet<Circuit<MedialVertex>> boundaryFaces = new TreeSet<>();
-        for (Circuit<MedialVertex> f : innerFaces()) {
-            if (f.sharesEdgesWith(leftBoundary) || f.sharesEdgesWith(rightBoundary)) {
-                boundaryFaces.add(f);
+        for (Walk<MedialVertex> boundary : Arrays.asList(leftBoundary, rightBoundary)) {
+            for (EdgeTail<MedialVertex> e : boundary.edgeList()) {
+                boundaryFaces.add(getFace(e));
+                boundaryFaces.add(getFace(e.otherSide()));
             }
         }
+        boundaryFaces.remove(outerFace());
         return boundaryFaces;
     }
 
@@ -140,19 +406,12 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
      * @return true if the circuit contains one of the lens poles
      */
     public boolean isPolar(Circuit<MedialVertex> circuit) {
-        MedialVertex southPole = leftBoundary.getStartVertex();
-        MedialVertex northPole = leftBoundary.getEndVertex();
-        return circuit.contains(southPole) || circuit.contains(northPole);
+        return circuit.contains(getSouthPole()) || circuit.contains(getNorthPole());
     }
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((leftBoundary == null) ? 0 : leftBoundary.hashCode());
-        result = prime * result
-                + ((rightBoundary == null) ? 0 : rightBoundary.hashCode());
-        return result;
+        return hash;
     }
 
     @Override
@@ -167,21 +426,8 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
             return false;
         }
         Lens other = (Lens) obj;
-        if (leftBoundary == null) {
-            if (other.leftBoundary != null) {
-                return false;
-            }
-        } else if (!leftBoundary.equals(other.leftBoundary)) {
-            return false;
-        }
-        if (rightBoundary == null) {
-            if (other.rightBoundary != null) {
-                return false;
-            }
-        } else if (!rightBoundary.equals(other.rightBoundary)) {
-            return false;
-        }
-        return true;
+        return hash == other.hash && leftBoundary.equals(other.leftBoundary)
+                && rightBoundary.equals(other.rightBoundary);
     }
 
     /**
@@ -190,8 +436,7 @@ public class Lens extends PlaneGraph<MedialVertex> implements Comparable<Lens> {
      */
     @Override
     public int compareTo(Lens o) {
-        int byInnerFaceCount = Integer.compare(numberOfInnerFaces(),
-                o.numberOfInnerFaces());
+        int byInnerFaceCount = Integer.compare(innerFaceCount, o.innerFaceCount);
         if (byInnerFaceCount != 0) {
             return byInnerFaceCount;
         }
@@ -34,7 +34,7 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      * is in the white map. (In other words, every edge has a black tail and a
      * white tail.)
      */
-    private Map<EdgeTail<MedialVertex>, AtomicVertex> blackMap;
+    private final Map<EdgeTail<MedialVertex>, AtomicVertex> blackMap;
 
     /**
      * Mapping from medial edge tails to corresponding faces (identified by a
@@ -42,27 +42,146 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      *
      * @see #blackMap
      */
-    private Map<EdgeTail<MedialVertex>, EdgeTail<AtomicVertex>> whiteMap;
+    private final Map<EdgeTail<MedialVertex>, EdgeTail<AtomicVertex>> whiteMap;
 
     /**
-     * Construct a medial graph from an incidence map.
+     * Mapping from the edge tails of the original graph to the corresponding
+     * medial edges.
      *
-     * @param incidenceMap
-     *            incidence map representation
-     * @param blackMap
-     *            mapping from medial edge tails to vertices
-     * @param whiteMap
-     *            mapping from medial edge tails to faces
-     * @throws IllegalArgumentException
-     *             if the incidence map representation is invalid
-     */
-    private MedialGraph(
-            Map<MedialVertex, RotationList<EdgeTail<MedialVertex>>> incidenceMap,
-            Map<EdgeTail<MedialVertex>, AtomicVertex> blackMap,
-            Map<EdgeTail<MedialVertex>, EdgeTail<AtomicVertex>> whiteMap) {
-        super(incidenceMap);
-        this.blackMap = blackMap;
-        this.whiteMap = whiteMap;
+     * <p>
+     * Every corner of a face in the original graph, i.e. every pair of
+     * consecutive edge tails {@code (p, t)} in the face, corresponds to a
+     * medial edge from the medial vertex of {@code p} to the medial vertex of
+     * {@code t}. Since {@code p} is determined by {@code t}, the medial edge is
+     * identified by {@code t}.
+     */
+    private final Map<EdgeTail<AtomicVertex>, UndirectedEdge<MedialVertex>> cornerEdges;
+
+    /**
+     * Rotations of the vertices of the original graph at the time of the last
+     * update.
+     */
+    private final Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> originalRotations;
+
+    /**
+     * Canonical medial vertices, by the ID of their underlying edge.
+     */
+    private final InternTable<MedialVertex> medialVertices;
+
+    /**
+     * The boundaries of all lenses of this medial graph, or null if they have
+     * not been requested yet. Once computed, the index is kept up to date by
+     * {@link #update}.
+     */
+    private Set<LensCandidate> lensIndex;
+
+    /**
+     * The geodesic labeling of this medial graph, or null if it has not been
+     * requested yet. Once computed, it is kept up to date by {@link #update}.
+     */
+    private GeodesicLabeling geodesicLabeling;
+
+    /**
+     * Default for the least number of vertices for which lenses are
+     * enumerated in parallel. The medial graphs of the platonic solids stay
+     * below it, where splitting the work costs more than it gains.
+     */
+    static final int DEFAULT_PARALLEL_THRESHOLD = 64;
+
+    /**
+     * Least number of vertices for which lenses are enumerated in parallel.
+     */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * The boundaries of a lens, together with the lens once it has been
+     * built.
+     *
+     * <p>
+     * Candidates are identified by their boundaries, like lenses.
+     */
+    private static final class LensCandidate {
+
+        /**
+         * The left boundary of the lens.
+         */
+        private final Walk<MedialVertex> leftBoundary;
+
+        /**
+         * The right boundary of the lens.
+         */
+        private final Walk<MedialVertex> rightBoundary;
+
+        /**
+         * The vertices on both boundaries.
+         */
+        private final Set<MedialVertex> boundaryVertices;
+
+        /**
+         * The hash code of the candidate.
+         */
+        private final int hash;
+
+        /**
+         * The lens, or null if it has not been built since the last change
+         * of the lens interior.
+         */
+        private Lens lens;
+
+        /**
+         * Create a lens candidate from its boundaries.
+         *
+         * @param leftBoundary
+         *            left boundary of the lens
+         * @param rightBoundary
+         *            right boundary of the lens
+         */
+        LensCandidate(Walk<MedialVertex> leftBoundary, Walk<MedialVertex> rightBoundary) {
+            this.leftBoundary = leftBoundary;
+            this.rightBoundary = rightBoundary;
+            boundaryVertices = leftBoundary.vertices();
+            boundaryVertices.addAll(rightBoundary.vertices());
+            hash = 31 * leftBoundary.hashCode() + rightBoundary.hashCode();
+        }
+
+        /**
+         * Return the total length of both boundaries.
+         *
+         * @return boundary length
+         */
+        int boundaryLength() {
+            return leftBoundary.length() + rightBoundary.length();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LensCandidate)) {
+                return false;
+            }
+            LensCandidate other = (LensCandidate) obj;
+            return hash == other.hash && leftBoundary.equals(other.leftBoundary)
+                    && rightBoundary.equals(other.rightBoundary);
+        }
+    }
+
+    /**
+     * Construct an empty medial graph.
+     */
+    private MedialGraph() {
+        super(new HashMap<>());
+        blackMap = new HashMap<>();
+        whiteMap = new HashMap<>();
+        cornerEdges = new HashMap<>();
+        originalRotations = new HashMap<>();
+        medialVertices = new InternTable<>();
     }
 
     /**
@@ -76,42 +195,160 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      * @return a new medial graph
      */
     public static MedialGraph fromAtomicPlaneGraph(AtomicPlaneGraph originalGraph) {
-        int nextEdgeID = 0; // medial edge ID
-        Set<Circuit<AtomicVertex>> faces = originalGraph.faces();
-        Map<MedialVertex, RotationList<EdgeTail<MedialVertex>>> incidences = new HashMap<>();
-        Map<EdgeTail<MedialVertex>, AtomicVertex> blackMap = new HashMap<>();
-        Map<EdgeTail<MedialVertex>, EdgeTail<AtomicVertex>> whiteMap = new HashMap<>();
-        for (Circuit<AtomicVertex> face : faces) {
-            // create medial vertices and edges, and build black/white maps
-            RotationList<EdgeTail<AtomicVertex>> originalEdges = face.edgeRotationList();
-            RotationList<UndirectedEdge<MedialVertex>> medialEdges = new RotationList<>();
-            List<MedialVertex> medialVertices = new ArrayList<>();
-            for (int i = 0; i < face.size(); i++) {
-                MedialVertex left = new MedialVertex(originalEdges.getMod(i - 1)
-                                                                  .getEdge());
-                MedialVertex right = new MedialVertex(originalEdges.get(i)
-                                                                   .getEdge());
-                UndirectedEdge<MedialVertex> newMedialEdge = new UndirectedEdge<>(
-                        nextEdgeID++, left, right);
-                medialEdges.add(newMedialEdge);
-                medialVertices.add(right);
-                whiteMap.putIfAbsent(newMedialEdge.leftTail(), originalEdges.get(0));
-                blackMap.putIfAbsent(newMedialEdge.rightTail(), originalEdges.get(i)
-                                                                             .getSource());
+        MedialGraph medialGraph = new MedialGraph();
+        medialGraph.update(originalGraph, originalGraph.vertices());
+        return medialGraph;
+    }
+
+    /**
+     * Return the canonical medial vertex of the specified edge of the original
+     * graph.
+     *
+     * @param e
+     *            an edge of the original graph
+     * @return the medial vertex
+     */
+    private MedialVertex medialVertex(UndirectedEdge<AtomicVertex> e) {
+        MedialVertex mv = medialVertices.get(e.getID());
+        if (mv == null || mv.getUnderlyingEdge() != e) {
+            mv = new MedialVertex(e);
+            if (e.getID() >= 0) {
+                medialVertices.put(e.getID(), mv);
+            }
+        }
+        return mv;
+    }
+
+    /**
+     * Return the number of canonical medial vertices that are kept for reuse.
+     *
+     * @return number of interned medial vertices
+     */
+    int numberOfInternedVertices() {
+        return medialVertices.size();
+    }
+
+    /**
+     * Update this medial graph after a change of the original graph.
+     *
+     * <p>
+     * Only the rotations of the specified vertices of the original graph may
+     * have changed (see {@link PlaneGraph#startRecordingChanges()}). The medial
+     * edges at the corners of these vertices are replaced if necessary, and
+     * only the medial vertices incident to replaced medial edges are rebuilt.
+     * The IDs of removed medial edges are reused. The geodesic labeling and
+     * the lens index, if they have been computed, are only updated around
+     * the rebuilt medial vertices. Thus, the cost of an update is
+     * proportional to the size of the change and the length of the
+     * geodesics through it.
+     *
+     * @param originalGraph
+     *            the current state of the original graph
+     * @param changedVertices
+     *            vertices of the original graph whose rotation has changed,
+     *            including added and removed vertices
+     */
+    void update(AtomicPlaneGraph originalGraph, Collection<AtomicVertex> changedVertices) {
+        Set<MedialVertex> affected = new HashSet<>();
+        Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> newRotations = new LinkedHashMap<>();
+        // remove medial edges at corners that have changed, first for all
+        // vertices, so that their IDs can be reused below
+        for (AtomicVertex v : changedVertices) {
+            RotationList<EdgeTail<AtomicVertex>> oldRotation = originalRotations.remove(v);
+            RotationList<EdgeTail<AtomicVertex>> newRotation = null;
+            if (originalGraph.vertices()
+                             .contains(v)) {
+                newRotation = originalGraph.incidentEdgeTails(v);
+                originalRotations.put(v, newRotation);
+                newRotations.put(v, newRotation);
+            }
+            if (oldRotation != null) {
+                for (EdgeTail<AtomicVertex> t : oldRotation) {
+                    if (newRotation == null || !newRotation.contains(t)
+                            || !sameTail(newRotation.rotateBy(t, 0), t)
+                            || !sameTail(newRotation.prevBefore(t),
+                                    oldRotation.prevBefore(t))) {
+                        UndirectedEdge<MedialVertex> medialEdge = cornerEdges.remove(t);
+                        blackMap.remove(medialEdge.rightTail());
+                        whiteMap.remove(medialEdge.leftTail());
+                        releaseEdgeID(medialEdge.getID());
+                        affected.addAll(medialEdge.vertices());
+                    }
+                }
             }
-            // register incident medial edges
-            for (int i = 0; i < medialVertices.size(); i++) {
-                MedialVertex mv = medialVertices.get(i);
-                RotationList<EdgeTail<MedialVertex>> mvIncidentEdges = incidences.getOrDefault(
-                        mv, new RotationList<>());
-                mvIncidentEdges.add(medialEdges.get(i)
-                                               .rightTail());
-                mvIncidentEdges.add(medialEdges.getMod(i + 1)
-                                               .leftTail());
-                incidences.putIfAbsent(mv, mvIncidentEdges);
+        }
+        // add medial edges at new corners
+        for (Map.Entry<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> entry : newRotations.entrySet()) {
+            AtomicVertex v = entry.getKey();
+            RotationList<EdgeTail<AtomicVertex>> newRotation = entry.getValue();
+            for (EdgeTail<AtomicVertex> t : newRotation) {
+                if (!cornerEdges.containsKey(t)) {
+                    EdgeTail<AtomicVertex> prev = newRotation.prevBefore(t)
+                                                             .otherSide();
+                    UndirectedEdge<MedialVertex> medialEdge = new UndirectedEdge<>(getUnusedEdgeID(),
+                            medialVertex(prev.getEdge()), medialVertex(t.getEdge()));
+                    cornerEdges.put(t, medialEdge);
+                    whiteMap.put(medialEdge.leftTail(), t);
+                    blackMap.put(medialEdge.rightTail(), v);
+                    affected.addAll(medialEdge.vertices());
+                }
+            }
+        }
+        // rebuild the affected medial vertices that still exist
+        Map<MedialVertex, RotationList<EdgeTail<MedialVertex>>> rotations = new HashMap<>();
+        for (MedialVertex mv : affected) {
+            // an edge that reuses the ID of a removed edge has a new medial
+            // vertex, which is equal to the old one
+            MedialVertex current = medialVertices.get(mv.getID());
+            if (current == null) {
+                current = mv;
             }
+            UndirectedEdge<AtomicVertex> e = current.getUnderlyingEdge();
+            if (cornerEdges.containsKey(e.leftTail())) {
+                RotationList<EdgeTail<MedialVertex>> rotation = new RotationList<>();
+                for (EdgeTail<AtomicVertex> t : Arrays.asList(e.leftTail(),
+                        e.rightTail())) {
+                    EdgeTail<AtomicVertex> next = originalGraph.nextEdge(t,
+                            RotationDirection.CLOCKWISE);
+                    rotation.add(cornerEdges.get(t)
+                                            .rightTail());
+                    rotation.add(cornerEdges.get(next)
+                                            .leftTail());
+                }
+                rotations.put(current, rotation);
+            } else if (medialVertices.get(e.getID()) == current) {
+                // the underlying edge is gone
+                medialVertices.remove(e.getID());
+            }
+        }
+        if (geodesicLabeling != null) {
+            geodesicLabeling.invalidate(this, affected);
         }
-        return new MedialGraph(incidences, blackMap, whiteMap);
+        replaceRotations(affected, rotations);
+        if (geodesicLabeling != null) {
+            geodesicLabeling.relabel(this, affected);
+        }
+        if (lensIndex != null) {
+            updateLensIndex(affected);
+        }
+    }
+
+    /**
+     * Return whether two edge tails of the original graph are the same, i.e.
+     * have the same ID and the same endpoints. Since the IDs of removed edges
+     * are reused, equal tails may belong to different edges.
+     *
+     * @param a
+     *            an edge tail
+     * @param b
+     *            another edge tail
+     * @return true if the tails are the same
+     */
+    private static boolean sameTail(EdgeTail<AtomicVertex> a, EdgeTail<AtomicVertex> b) {
+        return a.equals(b) && a.getSource()
+                               .equals(b.getSource())
+                && a.getTarget()
+                    .equals(b.getTarget());
     }
 
     /**
@@ -136,14 +373,20 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      * @return the geodesic circuit
      */
     public Circuit<MedialVertex> geodesicFrom(EdgeTail<MedialVertex> start) {
-        List<EdgeTail<MedialVertex>> edgeList = new ArrayList<>();
-        edgeList.add(start);
-        EdgeTail<MedialVertex> cur = directExtension(start);
-        while (!cur.equals(start)) {
-            edgeList.add(cur);
-            cur = directExtension(cur);
+        return new Circuit<>(getGeodesicLabeling().tailsFrom(start));
+    }
+
+    /**
+     * Return the geodesic labeling of this medial graph, computing it if
+     * necessary.
+     *
+     * @return the geodesic labeling
+     */
+    private GeodesicLabeling getGeodesicLabeling() {
+        if (geodesicLabeling == null) {
+            geodesicLabeling = new GeodesicLabeling(this);
         }
-        return new Circuit<>(edgeList);
+        return geodesicLabeling;
     }
 
     // Note: This should always be a trail (no repeated edges).
@@ -151,6 +394,8 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      * Return the geodesic walk from the specified start edge tail to the
      * specified destination vertex.
      *
+     * @param labeling
+     *            the geodesic labeling of this graph
      * @param startEdge
      *            the start edge tail
      * @param destVertex
@@ -160,19 +405,19 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      *             destination vertex
      * @return the geodesic walk
      */
-    private Walk<MedialVertex> geodesicWalkBetween(EdgeTail<MedialVertex> startEdge,
-            MedialVertex destVertex) {
+    private static Walk<MedialVertex> geodesicWalkBetween(GeodesicLabeling labeling,
+            EdgeTail<MedialVertex> startEdge, MedialVertex destVertex) {
         if (startEdge.getSource()
                      .equals(destVertex)) { // trivial walk
             return new Circuit<>(destVertex);
         }
         List<EdgeTail<MedialVertex>> edgeList = new ArrayList<>();
         edgeList.add(startEdge);
-        EdgeTail<MedialVertex> cur = directExtension(startEdge);
+        EdgeTail<MedialVertex> cur = labeling.extension(startEdge);
         while (!cur.equals(startEdge) && !cur.getSource()
                                              .equals(destVertex)) {
             edgeList.add(cur);
-            cur = directExtension(cur);
+            cur = labeling.extension(cur);
         }
         if (!cur.getSource()
                 .equals(destVertex)) {
@@ -193,66 +438,35 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      * @return the set of geodesic circuits
      */
     public Set<Circuit<MedialVertex>> geodesics() {
-        Set<Circuit<MedialVertex>> geodesics = new HashSet<>();
-        Set<UndirectedEdge<MedialVertex>> visited = new HashSet<>();
-        for (UndirectedEdge<MedialVertex> edge : edges()) {
-            if (!visited.contains(edge)) {
-                Circuit<MedialVertex> geodesic = geodesicFrom(edge.leftTail());
-                geodesics.add(geodesic);
-                visited.addAll(geodesic.edges()
-                                       .stream()
-                                       .map(EdgeTail::getEdge)
-                                       .collect(Collectors.toSet()));
-            }
-        }
-        return geodesics;
+        return getGeodesicLabeling().circuits();
     }
 
     /**
-     * Partition all edges of the medial graph into geodesic classes.
-     *
-     * <p>
-     * Geodesic classes are identified by an integer. If two edges are mapped to
-     * the same integer, then they are in the same geodesic class, meaning that
-     * there is a geodesic path between these two edges.
-     *
-     * @param geodesics
-     *            a list of geodesic circuits (as computed by
-     *            {@link MedialGraph#geodesics()})
-     * @return mapping from edges to their geodesic class
-     */
-    private static Map<UndirectedEdge<MedialVertex>, Integer> geoClassMap(
-            Set<Circuit<MedialVertex>> geodesics) {
-        Map<UndirectedEdge<MedialVertex>, Integer> geoClassMap = new HashMap<>();
-        int classID = 0;
-        for (Circuit<MedialVertex> geodesic : geodesics) {
-            for (EdgeTail<MedialVertex> edge : geodesic.edges()) {
-                geoClassMap.put(edge.getEdge(), classID);
-            }
-            classID++;
-        }
-        return geoClassMap;
-    }
-
-    /**
-     * Return a set of the geodesic classes of a vertex.
+     * Return the geodesic class signature of a vertex.
      *
      * <p>
      * The geodesic classes of a vertex is the union of the geodesic classes of
-     * all edges that are incident to that vertex.
+     * all edges that are incident to that vertex. As every vertex of a medial
+     * graph is the crossing of two geodesic strands, there are at most two of
+     * them, and the signature packs the least and the greatest class into a
+     * single number. Two vertices have the same geodesic classes if and only
+     * if they have the same signature.
      *
-     * @param geoClassMap
-     *            a mapping from edges to their geodesic class (as returned by
-     *            {@link #geoClassMap(Set)})
+     * @param labeling
+     *            the geodesic labeling of this graph
      * @param vertex
      *            the vertex to look up
-     * @return the set of geodesic classes of the vertex
+     * @return the geodesic class signature of the vertex
      */
-    private Set<Integer> vertexGeoClasses(
-            Map<UndirectedEdge<MedialVertex>, Integer> geoClassMap, MedialVertex vertex) {
-        return incidentEdges(vertex).stream()
-                                    .map(e -> geoClassMap.get(e))
-                                    .collect(Collectors.toSet());
+    private long geoClassSignature(GeodesicLabeling labeling, MedialVertex vertex) {
+        int minClass = Integer.MAX_VALUE;
+        int maxClass = Integer.MIN_VALUE;
+        for (EdgeTail<MedialVertex> e : incidentEdgeTails(vertex)) {
+            int geoClass = labeling.geodesicOf(e.getEdge());
+            minClass = Math.min(minClass, geoClass);
+            maxClass = Math.max(maxClass, geoClass);
+        }
+        return ((long) minClass << 32) | (maxClass & 0xFFFFFFFFL);
     }
 
     /**
@@ -265,14 +479,237 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
      * @return the set of lenses
      */
     public TreeSet<Lens> lenses() {
-        TreeSet<Lens> lenses = new TreeSet<>();
-        Map<UndirectedEdge<MedialVertex>, Integer> geoClassMap = geoClassMap(geodesics());
-        for (MedialVertex southPole : vertices()) {
-            for (MedialVertex northPole : vertices()) {
-                if (southPole.compareTo(northPole) > 0) { // unique pairings
-                    if (vertexGeoClasses(geoClassMap, southPole).equals(
-                            vertexGeoClasses(geoClassMap, northPole))) {
-                        lenses.addAll(lensesBetweenPoles(southPole, northPole));
+        return stream(getLensIndex()).map(this::getLens)
+                                     .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Set the least number of vertices for which lenses are enumerated in
+     * parallel.
+     *
+     * @param parallelThreshold
+     *            the new threshold (0 to always enumerate in parallel,
+     *            {@link Integer#MAX_VALUE} to never do so)
+     */
+    void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Return a stream of the specified items, which is parallel if this graph
+     * has at least {@link #parallelThreshold} vertices.
+     *
+     * <p>
+     * Parallel streams run on the common fork-join pool. The lazily
+     * maintained state of this graph is brought up to date beforehand, so
+     * that the workers only read it.
+     *
+     * @param items
+     *            the items to stream
+     * @return a sequential or parallel stream of the items
+     */
+    private <T> Stream<T> stream(Collection<T> items) {
+        if (order() < parallelThreshold) {
+            return items.stream();
+        }
+        prepareConcurrentReads();
+        return items.parallelStream();
+    }
+
+    /**
+     * Return the set of lenses with the least number of inner faces.
+     *
+     * <p>
+     * Unlike {@link #lenses()}, this method does not build larger lenses.
+     * Candidates are examined in the order of their boundary length, and the
+     * inner faces of each candidate are only counted until the count exceeds
+     * that of the smallest lens found so far.
+     *
+     * @return the set of minimal lenses
+     */
+    public Set<Lens> minimalLenses() {
+        List<LensCandidate> candidates = new ArrayList<>(getLensIndex());
+        candidates.sort(Comparator.comparingInt(LensCandidate::boundaryLength));
+        int minInnerFaces = Integer.MAX_VALUE;
+        List<LensCandidate> minimalCandidates = new ArrayList<>();
+        for (LensCandidate candidate : candidates) {
+            int innerFaces = candidate.lens != null ? candidate.lens.numberOfInnerFaces()
+                    : countInnerFaces(candidate, minInnerFaces);
+            if (innerFaces < minInnerFaces) {
+                minInnerFaces = innerFaces;
+                minimalCandidates.clear();
+            }
+            if (innerFaces == minInnerFaces) {
+                minimalCandidates.add(candidate);
+            }
+        }
+        Set<Lens> minimalLenses = new HashSet<>();
+        for (LensCandidate candidate : minimalCandidates) {
+            minimalLenses.add(getLens(candidate));
+        }
+        return minimalLenses;
+    }
+
+    /**
+     * Return the lens index, computing it if necessary.
+     *
+     * @return the boundaries of all lenses
+     */
+    private Set<LensCandidate> getLensIndex() {
+        if (lensIndex == null) {
+            GeodesicLabeling labeling = getGeodesicLabeling();
+            // Poles of a lens have the same geodesic classes, so only pairs
+            // of vertices with the same signature need to be considered.
+            Map<Long, List<MedialVertex>> buckets = new HashMap<>();
+            for (MedialVertex v : vertices()) {
+                buckets.computeIfAbsent(geoClassSignature(labeling, v),
+                        k -> new ArrayList<>())
+                       .add(v);
+            }
+            List<MedialVertex[]> polePairs = new ArrayList<>();
+            for (List<MedialVertex> bucket : buckets.values()) {
+                for (int i = 0; i < bucket.size(); i++) {
+                    for (int j = i + 1; j < bucket.size(); j++) {
+                        MedialVertex u = bucket.get(i);
+                        MedialVertex v = bucket.get(j);
+                        // unique pairings: the south pole is the greater vertex
+                        if (u.compareTo(v) > 0) {
+                            polePairs.add(new MedialVertex[] { u, v });
+                        } else {
+                            polePairs.add(new MedialVertex[] { v, u });
+                        }
+                    }
+                }
+            }
+            lensIndex = stream(polePairs).flatMap(
+                    poles -> lensesBetweenPoles(labeling, poles[0], poles[1]).stream())
+                                         .collect(Collectors.toCollection(HashSet::new));
+        }
+        return lensIndex;
+    }
+
+    /**
+     * Return the lens of the specified candidate, building it if necessary.
+     *
+     * @param candidate
+     *            a lens candidate from the lens index
+     * @return the lens
+     */
+    private Lens getLens(LensCandidate candidate) {
+        if (candidate.lens == null) {
+            candidate.lens = lensFromBoundaries(candidate.leftBoundary,
+                    candidate.rightBoundary);
+        }
+        return candidate.lens;
+    }
+
+    /**
+     * Update the lens index after the rotations of the specified medial
+     * vertices have changed.
+     *
+     * <p>
+     * A lens whose boundaries contain none of the affected vertices is still a
+     * lens with the same boundaries; it only needs to be rebuilt if its
+     * interior contains affected vertices. Conversely, every new lens whose
+     * boundaries avoid the affected vertices has been a lens before. All
+     * remaining lenses have an affected vertex on their boundary, so their
+     * south pole lies on a geodesic through an affected vertex, and only these
+     * south poles are searched.
+     *
+     * @param affected
+     *            medial vertices that have been added, removed or rebuilt
+     */
+    private void updateLensIndex(Set<MedialVertex> affected) {
+        Iterator<LensCandidate> it = lensIndex.iterator();
+        while (it.hasNext()) {
+            LensCandidate candidate = it.next();
+            if (!Collections.disjoint(affected, candidate.boundaryVertices)) {
+                it.remove();
+            } else if (candidate.lens != null
+                    && affected.stream()
+                               .anyMatch(candidate.lens::contains)) {
+                candidate.lens = null; // only the interior has changed
+            }
+        }
+
+        GeodesicLabeling labeling = getGeodesicLabeling();
+        Set<MedialVertex> southPoles = new HashSet<>();
+        BitSet visited = new BitSet(labeling.idBound());
+        for (MedialVertex v : affected) {
+            if (vertices().contains(v)) {
+                for (EdgeTail<MedialVertex> start : incidentEdgeTails(v)) {
+                    int geodesic = labeling.geodesicOf(start.getEdge());
+                    if (!visited.get(geodesic)) {
+                        visited.set(geodesic);
+                        for (EdgeTail<MedialVertex> e : labeling.tailsFrom(start)) {
+                            southPoles.add(e.getSource());
+                        }
+                    }
+                }
+            }
+        }
+        for (MedialVertex southPole : southPoles) {
+            lensIndex.addAll(lensesFromSouthPole(labeling, southPole, affected));
+        }
+    }
+
+    /**
+     * Return the lenses with the specified south pole whose boundary contains
+     * one of the specified vertices.
+     *
+     * <p>
+     * The result agrees with {@link #lensesBetweenPoles} for all north poles
+     * that are less than the south pole. For each pair of consecutive edge
+     * tails at the south pole, both geodesics are traversed once: A vertex is a
+     * north pole if no other vertex occurs earlier on both geodesics, i.e. if
+     * it occurs earlier on the right geodesic than all vertices that precede
+     * it on the left geodesic.
+     *
+     * @param labeling
+     *            the geodesic labeling of this graph
+     * @param southPole
+     *            fixed south pole of the lens
+     * @param boundaryFilter
+     *            vertices of which at least one must be on the lens boundary
+     * @return list of lens candidates
+     */
+    private List<LensCandidate> lensesFromSouthPole(GeodesicLabeling labeling,
+            MedialVertex southPole, Set<MedialVertex> boundaryFilter) {
+        List<LensCandidate> lenses = new ArrayList<>();
+        long southSignature = geoClassSignature(labeling, southPole);
+        RotationList<EdgeTail<MedialVertex>> southEdges = incidentEdgeTails(southPole);
+        for (EdgeTail<MedialVertex> southLeft : southEdges) {
+            List<EdgeTail<MedialVertex>> left = labeling.tailsFrom(southLeft);
+            List<EdgeTail<MedialVertex>> right = labeling.tailsFrom(
+                    southEdges.nextAfter(southLeft));
+            Map<MedialVertex, Integer> rightIndex = new HashMap<>();
+            for (int j = 1; j < right.size(); j++) {
+                rightIndex.putIfAbsent(right.get(j)
+                                            .getSource(),
+                        j);
+            }
+            Set<MedialVertex> seen = new HashSet<>();
+            int minRightIndex = Integer.MAX_VALUE;
+            for (int i = 1; i < left.size(); i++) {
+                MedialVertex northPole = left.get(i)
+                                             .getSource();
+                if (northPole.equals(southPole) || !seen.add(northPole)) {
+                    continue;
+                }
+                Integer j = rightIndex.get(northPole);
+                if (j == null || j > minRightIndex) {
+                    continue;
+                }
+                minRightIndex = j;
+                if (southPole.compareTo(northPole) > 0
+                        && nextEdge(right.get(j - 1), RotationDirection.CLOCKWISE).equals(
+                                left.get(i - 1)
+                                    .otherSide())
+                        && southSignature == geoClassSignature(labeling, northPole)) {
+                    LensCandidate candidate = new LensCandidate(
+                            new Walk<>(left.subList(0, i)), new Walk<>(right.subList(0, j)));
+                    if (!Collections.disjoint(boundaryFilter, candidate.boundaryVertices)) {
+                        lenses.add(candidate);
                     }
                 }
             }
@@ -281,26 +718,28 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
     }
 
     /**
-     * Return the set of lenses between the specified poles.
+     * Return the lenses between the specified poles.
      *
+     * @param labeling
+     *            the geodesic labeling of this graph
      * @param southPole
      *            fixed south pole of the lens
      * @param northPole
      *            fixed north pole of the lens
-     * @return the set of lenses between the poles
+     * @return list of lens candidates
      */
-    private TreeSet<Lens> lensesBetweenPoles(MedialVertex southPole,
-            MedialVertex northPole) {
-        TreeSet<Lens> lenses = new TreeSet<>();
+    private List<LensCandidate> lensesBetweenPoles(GeodesicLabeling labeling,
+            MedialVertex southPole, MedialVertex northPole) {
+        List<LensCandidate> lenses = new ArrayList<>();
         Set<MedialVertex> poles = Stream.of(southPole, northPole)
                                         .collect(Collectors.toSet());
         RotationList<EdgeTail<MedialVertex>> southEdges = incidentEdgeTails(southPole);
         for (EdgeTail<MedialVertex> southLeft : southEdges) {
             EdgeTail<MedialVertex> southRight = southEdges.nextAfter(southLeft);
-            Walk<MedialVertex> leftLensBoundary = geodesicWalkBetween(southLeft,
-                    northPole);
-            Walk<MedialVertex> rightLensBoundary = geodesicWalkBetween(southRight,
+            Walk<MedialVertex> leftLensBoundary = geodesicWalkBetween(labeling, southLeft,
                     northPole);
+            Walk<MedialVertex> rightLensBoundary = geodesicWalkBetween(labeling,
+                    southRight, northPole);
             if (leftLensBoundary.intersectVertices(rightLensBoundary)
                                 .equals(poles)) {
                 EdgeTail<MedialVertex> northLeft = leftLensBoundary.edgeList()
@@ -309,7 +748,7 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
                                                                      .getLast();
                 if (nextEdge(northRight, RotationDirection.CLOCKWISE).equals(
                         northLeft.otherSide())) {
-                    lenses.add(lensFromBoundaries(leftLensBoundary, rightLensBoundary));
+                    lenses.add(new LensCandidate(leftLensBoundary, rightLensBoundary));
                 }
             }
         }
@@ -317,27 +756,18 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
     }
 
     /**
-     * Return a lens subgraph based on the specified lens boundaries.
-     *
-     * <p>
-     * No validation is performed whether the specified boundaries describe an
-     * actual lens in this graph.
-     *
-     * <p>
-     * By convention, both the left and the right boundaries of a lens are
-     * directed walks from the south pole to the north pole.
+     * Return the least inner vertex of the lens with the specified boundaries
+     * that is adjacent to the boundary.
      *
      * @param leftBoundary
      *            left boundary of the lens
      * @param rightBoundary
      *            right boundary of the lens
-     * @return the lens subgraph
+     * @return the least boundary-adjacent inner vertex, or null if the lens
+     *         has no inner vertices
      */
-    private Lens lensFromBoundaries(Walk<MedialVertex> leftBoundary,
+    private MedialVertex firstInnerVertex(Walk<MedialVertex> leftBoundary,
             Walk<MedialVertex> rightBoundary) {
-
-        // Determine whether the lens contains inner vertices
-        Set<MedialVertex> innerVertices = new HashSet<>();
         TreeSet<MedialVertex> boundaryAdjacentInnerVertices = new TreeSet<>();
         MedialVertex northPole = rightBoundary.getEndVertex();
         for (EdgeTail<MedialVertex> leftEdge : leftBoundary.edgeList()) {
@@ -360,22 +790,96 @@ public class MedialGraph extends PlaneGraph<MedialVertex> {
                 }
             }
         }
-        if (!boundaryAdjacentInnerVertices.isEmpty()) {
-            MedialVertex innerVertex = boundaryAdjacentInnerVertices.first();
+        return boundaryAdjacentInnerVertices.isEmpty() ? null
+                : boundaryAdjacentInnerVertices.first();
+    }
+
+    /**
+     * Return the number of inner faces of the lens of the specified
+     * candidate, without building the lens.
+     *
+     * <p>
+     * The lens subgraph is connected, so by Euler's formula it has
+     * {@code E - V + 1} inner faces. Starting with the boundary vertices, the
+     * inner vertices are added one at a time, each of which can only increase
+     * this number. Hence the count stops as soon as it exceeds the bound.
+     *
+     * @param candidate
+     *            a lens candidate
+     * @param bound
+     *            an upper bound of interest
+     * @return the number of inner faces, or some number greater than the
+     *         bound if the lens has more inner faces than that
+     */
+    private int countInnerFaces(LensCandidate candidate, int bound) {
+        Set<MedialVertex> boundaryVertices = candidate.boundaryVertices;
+        // twice the number of inner faces, to count edges by their tails
+        long doubleCount = 2 - 2 * boundaryVertices.size();
+        for (MedialVertex v : boundaryVertices) {
+            for (EdgeTail<MedialVertex> e : incidentEdgeTails(v)) {
+                if (boundaryVertices.contains(e.getTarget())) {
+                    doubleCount++;
+                }
+            }
+        }
+        MedialVertex start = firstInnerVertex(candidate.leftBoundary,
+                candidate.rightBoundary);
+        if (start != null) {
+            Set<MedialVertex> visited = new HashSet<>();
+            Deque<MedialVertex> queue = new ArrayDeque<>();
+            visited.add(start);
+            queue.add(start);
+            while (!queue.isEmpty() && doubleCount <= 2L * bound) {
+                MedialVertex v = queue.poll();
+                doubleCount -= 2;
+                for (EdgeTail<MedialVertex> e : incidentEdgeTails(v)) {
+                    MedialVertex w = e.getTarget();
+                    if (boundaryVertices.contains(w)) {
+                        doubleCount += 2; // edge to the boundary, seen once
+                    } else {
+                        doubleCount++; // inner edge, seen from both ends
+                        if (visited.add(w)) {
+                            queue.add(w);
+                        }
+                    }
+                }
+            }
+        }
+        return doubleCount > 2L * bound ? bound + 1 : (int) (doubleCount / 2);
+    }
+
+    /**
+     * Return a lens based on the specified lens boundaries.
+     *
+     * <p>
+     * No validation is performed whether the specified boundaries describe an
+     * actual lens in this graph.
+     *
+     * <p>
+     * By convention, both the left and the right boundaries of a lens are
+     * directed walks from the south pole to the north pole.
+     *
+     * @param leftBoundary
+     *            left boundary of the lens
+     * @param rightBoundary
+     *            right boundary of the lens
+     * @return the lens
+     */
+    private Lens lensFromBoundaries(Walk<MedialVertex> leftBoundary,
+            Walk<MedialVertex> rightBoundary) {
+
+        // Determine whether the lens contains inner vertices
+        BitSet innerVertices = new BitSet();
+        MedialVertex innerVertex = firstInnerVertex(leftBoundary, rightBoundary);
+        if (innerVertex != null) {
             Set<MedialVertex> boundaryVertices = new HashSet<>();
             boundaryVertices.addAll(leftBoundary.vertices());
             boundaryVertices.addAll(rightBoundary.vertices());
-            innerVertices = connectedVertices(innerVertex, boundaryVertices);
+            for (MedialVertex v : connectedVertices(innerVertex, boundaryVertices)) {
+                innerVertices.set(v.getID());
+            }
         }
-
-        // Collect all vertices contained in the lens subgraph
-        Set<MedialVertex> lensVertices = new HashSet<>();
-        lensVertices.addAll(leftBoundary.vertices());
-        lensVertices.addAll(rightBoundary.vertices());
-        lensVertices.addAll(innerVertices);
-
-        return new Lens(vertexInducedSubgraphAsIncidenceMap(lensVertices), leftBoundary,
-                rightBoundary);
+        return new Lens(this, leftBoundary, rightBoundary, innerVertices);
     }
 
     /**
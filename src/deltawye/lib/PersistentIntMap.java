@@ -0,0 +1,397 @@
+package deltawye.lib;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A map from int keys to values, stored in a bit-partitioned trie with 32
+ * children per node that can be snapshotted in constant time.
+ *
+ * <p>
+ * Keys are taken as unsigned, so small non-negative keys (element IDs) give a
+ * shallow trie. Every node records the map that created it, and a map modifies
+ * its own nodes in place. {@link #snapshot()} hands the current nodes over to
+ * neither side: both the map and the snapshot copy a node on their first
+ * change to it, so an update after a snapshot copies only the nodes on the
+ * path from the root to its key, and all other nodes stay shared.
+ *
+ * <p>
+ * Null values are not stored; putting null removes the key. Values are
+ * iterated in unsigned key order. Like the other collections of this package,
+ * a map must not be modified while it is iterated or read from other threads.
+ *
+ * @param <T>
+ *            the type of values
+ */
+final class PersistentIntMap<T> implements Iterable<T> {
+
+    /**
+     * Number of key bits per trie level.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Number of children of a trie node.
+     */
+    private static final int WIDTH = 1 << BITS;
+
+    /**
+     * Mask for the child index within a trie node.
+     */
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * Root node of the trie. The first {@value #WIDTH} slots of a node are
+     * child nodes above the leaf level and values on the leaf level; the last
+     * slot holds the owner of the node.
+     */
+    private Object[] root;
+
+    /**
+     * Number of key bits below the root level.
+     */
+    private int shift;
+
+    /**
+     * Number of keys.
+     */
+    private int size;
+
+    /**
+     * Owner token of this map: nodes that carry it may be modified in place.
+     */
+    private Object owner;
+
+    /**
+     * Create an empty map.
+     */
+    PersistentIntMap() {
+        owner = new Object();
+        root = newNode();
+        shift = 0;
+        size = 0;
+    }
+
+    /**
+     * Create a map that shares the trie of the specified one.
+     *
+     * @param original
+     *            the map to copy
+     */
+    private PersistentIntMap(PersistentIntMap<T> original) {
+        owner = new Object();
+        root = original.root;
+        shift = original.shift;
+        size = original.size;
+    }
+
+    /**
+     * Return a map with the same content that shares all nodes with this map.
+     * Takes constant time.
+     *
+     * @return the snapshot
+     */
+    PersistentIntMap<T> snapshot() {
+        // neither map may modify the current nodes in place any more
+        owner = new Object();
+        return new PersistentIntMap<>(this);
+    }
+
+    /**
+     * Return a new empty node owned by this map.
+     *
+     * @return the node
+     */
+    private Object[] newNode() {
+        Object[] node = new Object[WIDTH + 1];
+        node[WIDTH] = owner;
+        return node;
+    }
+
+    /**
+     * Return the specified node if this map owns it, or a copy owned by this
+     * map otherwise.
+     *
+     * @param node
+     *            a trie node
+     * @return a node with the same content that may be modified
+     */
+    private Object[] editable(Object[] node) {
+        if (node[WIDTH] == owner) {
+            return node;
+        }
+        Object[] copy = node.clone();
+        copy[WIDTH] = owner;
+        return copy;
+    }
+
+    /**
+     * Return whether the specified key fits into the current trie.
+     *
+     * @param key
+     *            a key
+     * @return true if the key is within the range of the root node
+     */
+    private boolean fits(int key) {
+        return shift + BITS >= Integer.SIZE || (key >>> (shift + BITS)) == 0;
+    }
+
+    /**
+     * Return the number of keys in this map.
+     *
+     * @return the number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return whether this map is empty.
+     *
+     * @return true if there are no keys
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the value of the specified key.
+     *
+     * @param key
+     *            a key
+     * @return the value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    T get(int key) {
+        if (!fits(key)) {
+            return null;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(key >>> level) & MASK];
+            if (node == null) {
+                return null;
+            }
+        }
+        return (T) node[key & MASK];
+    }
+
+    /**
+     * Set the value of the specified key.
+     *
+     * @param key
+     *            a key
+     * @param value
+     *            the new value, or null to remove the key
+     * @return the previous value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    T put(int key, T value) {
+        if (value == null && get(key) == null) {
+            return null;
+        }
+        while (!fits(key)) {
+            Object[] newRoot = newNode();
+            newRoot[0] = root;
+            root = newRoot;
+            shift += BITS;
+        }
+        Object[] node = editable(root);
+        root = node;
+        for (int level = shift; level > 0; level -= BITS) {
+            int slot = (key >>> level) & MASK;
+            Object[] child = (Object[]) node[slot];
+            child = child == null ? newNode() : editable(child);
+            node[slot] = child;
+            node = child;
+        }
+        T old = (T) node[key & MASK];
+        node[key & MASK] = value;
+        if (old == null) {
+            size++;
+        } else if (value == null) {
+            size--;
+        }
+        return old;
+    }
+
+    /**
+     * Remove the specified key.
+     *
+     * @param key
+     *            a key
+     * @return the previous value, or null if the key was not present
+     */
+    T remove(int key) {
+        return put(key, null);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ValueIterator();
+    }
+
+    /**
+     * Iterator over the values in unsigned key order.
+     */
+    private final class ValueIterator implements Iterator<T> {
+
+        /**
+         * Current node on each level, from the root down.
+         */
+        private final Object[][] path;
+
+        /**
+         * Current slot on each level.
+         */
+        private final int[] slots;
+
+        /**
+         * Current level.
+         */
+        private int depth;
+
+        /**
+         * The value that is returned next, or null if there is none.
+         */
+        private Object upcoming;
+
+        /**
+         * Create an iterator.
+         */
+        ValueIterator() {
+            int levels = shift / BITS + 1;
+            path = new Object[levels][];
+            slots = new int[levels];
+            path[0] = root;
+            depth = 0;
+            advance();
+        }
+
+        /**
+         * Find the next value in depth-first order.
+         */
+        private void advance() {
+            upcoming = null;
+            while (upcoming == null) {
+                if (slots[depth] == WIDTH) {
+                    if (depth == 0) {
+                        return;
+                    }
+                    depth--;
+                    slots[depth]++;
+                    continue;
+                }
+                Object child = path[depth][slots[depth]];
+                if (child == null) {
+                    slots[depth]++;
+                } else if (depth == path.length - 1) {
+                    upcoming = child;
+                    slots[depth]++;
+                } else {
+                    depth++;
+                    path[depth] = (Object[]) child;
+                    slots[depth] = 0;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return upcoming != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = (T) upcoming;
+            advance();
+            return value;
+        }
+    }
+
+    /**
+     * Return the number of nodes of this map.
+     *
+     * @return the number of trie nodes
+     */
+    int nodeCount() {
+        return nodeCount(root, shift);
+    }
+
+    /**
+     * Return the number of nodes of this map that are shared with the
+     * specified map, i.e. that are reached by the same key prefix in both.
+     *
+     * @param other
+     *            another map
+     * @return the number of shared trie nodes
+     */
+    int nodesSharedWith(PersistentIntMap<?> other) {
+        Object[] node = root;
+        int level = shift;
+        Object[] otherNode = other.root;
+        int otherLevel = other.shift;
+        // the old root of a grown trie is the first child of the new root
+        for (; level > otherLevel && node != null; level -= BITS) {
+            node = (Object[]) node[0];
+        }
+        for (; otherLevel > level && otherNode != null; otherLevel -= BITS) {
+            otherNode = (Object[]) otherNode[0];
+        }
+        return sharedNodes(node, otherNode, Math.min(level, otherLevel));
+    }
+
+    /**
+     * Return the number of nodes in the specified subtrie.
+     *
+     * @param node
+     *            a trie node, or null
+     * @param level
+     *            number of key bits below the level of the node
+     * @return the number of nodes
+     */
+    private static int nodeCount(Object[] node, int level) {
+        if (node == null) {
+            return 0;
+        }
+        int count = 1;
+        if (level > 0) {
+            for (int i = 0; i < WIDTH; i++) {
+                count += nodeCount((Object[]) node[i], level - BITS);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return the number of nodes of the first subtrie that are shared with the
+     * second one.
+     *
+     * @param node
+     *            a trie node, or null
+     * @param otherNode
+     *            a trie node on the same level, or null
+     * @param level
+     *            number of key bits below the level of the nodes
+     * @return the number of shared nodes
+     */
+    private static int sharedNodes(Object[] node, Object[] otherNode, int level) {
+        if (node == otherNode) {
+            return nodeCount(node, level);
+        }
+        if (node == null || otherNode == null || level == 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < WIDTH; i++) {
+            count += sharedNodes((Object[]) node[i], (Object[]) otherNode[i],
+                    level - BITS);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,335 @@
+package deltawye.lib;
+
+import java.util.*;
+
+/**
+ * Rotation system stored in a persistent trie of immutable rotation lists.
+ *
+ * <p>
+ * The rotation of every vertex is an immutable array of its edge tails in
+ * clockwise order. These arrays are stored in a {@link PersistentIntMap}, a
+ * bit-partitioned trie with 32 children per node, indexed by vertex IDs. An
+ * update replaces the array of one vertex. {@link #copy()} takes constant time;
+ * afterwards, an update copies only the trie nodes on the path from the root
+ * to its vertex, and all other nodes and rotations stay shared.
+ *
+ * <p>
+ * Edge tails are looked up by a linear scan in the rotation of a low-degree
+ * vertex. For higher degrees, every rotation array gets a position index the
+ * first time it is searched, like {@link RotationList}; since an update
+ * already copies the array, it only costs a constant factor more.
+ *
+ * <p>
+ * The linear order of the rotation list of a vertex (i.e. which edge tail comes
+ * first) is maintained exactly like in {@link IncidenceMapRotationSystem}, so
+ * both backends produce the same results for the same sequence of operations.
+ *
+ * @param <V>
+ *            the type of vertices
+ */
+class PersistentRotationSystem<V extends Vertex<V>> extends RotationSystem<V> {
+
+    /**
+     * The rotation of a present vertex. Never modified.
+     */
+    private static final class Entry {
+
+        /**
+         * The vertex.
+         */
+        private final Object vertex;
+
+        /**
+         * Outgoing edge tails in clockwise order.
+         */
+        private final Object[] tails;
+
+        /**
+         * Position of every edge tail, or null if it has not been needed yet.
+         * Volatile so that concurrent readers see a fully built index.
+         */
+        private volatile Map<Object, Integer> positions;
+
+        /**
+         * Create an entry.
+         *
+         * @param vertex
+         *            the vertex
+         * @param tails
+         *            outgoing edge tails in clockwise order, not copied
+         */
+        Entry(Object vertex, Object[] tails) {
+            this.vertex = vertex;
+            this.tails = tails;
+        }
+
+        /**
+         * Return the position of the specified edge tail.
+         *
+         * @param tail
+         *            an edge tail
+         * @return position, or -1 if the edge tail is not present
+         */
+        int indexOf(EdgeTail<?> tail) {
+            if (tails.length < RotationList.INDEX_THRESHOLD) {
+                for (int i = 0; i < tails.length; i++) {
+                    if (tail.equals(tails[i])) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            Map<Object, Integer> index = positions;
+            if (index == null) {
+                index = new HashMap<>(2 * tails.length);
+                for (int i = 0; i < tails.length; i++) {
+                    index.put(tails[i], i);
+                }
+                positions = index;
+            }
+            Integer position = index.get(tail);
+            return position == null ? -1 : position;
+        }
+    }
+
+    /**
+     * The entries of the present vertices by vertex ID.
+     */
+    private final PersistentIntMap<Entry> entries;
+
+    /**
+     * Create an empty rotation system.
+     */
+    PersistentRotationSystem() {
+        entries = new PersistentIntMap<>();
+    }
+
+    /**
+     * Create a rotation system with the same content as the specified one.
+     *
+     * @param source
+     *            the rotation system to convert
+     */
+    PersistentRotationSystem(RotationSystem<V> source) {
+        this();
+        for (V v : source.vertices()) {
+            addVertex(v, source.rotation(v));
+        }
+    }
+
+    /**
+     * Create a rotation system that uses the specified entries.
+     *
+     * @param entries
+     *            the entries, used directly (not copied)
+     */
+    private PersistentRotationSystem(PersistentIntMap<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Return the ID of the specified vertex.
+     *
+     * @param v
+     *            a vertex
+     * @return vertex ID
+     */
+    private static int vertexID(Vertex<?> v) {
+        int id = v.getID();
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative vertex ID: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Return the entry with the specified vertex ID.
+     *
+     * @param id
+     *            a vertex ID
+     * @return the entry, or null if there is no such vertex
+     */
+    private Entry entry(int id) {
+        return id < 0 ? null : entries.get(id);
+    }
+
+    /**
+     * Return the entry of the specified vertex, making sure it is present.
+     *
+     * @param v
+     *            a vertex
+     * @return the entry
+     * @throws NoSuchElementException
+     *             if the vertex is not present
+     */
+    private Entry presentEntry(V v) {
+        Entry entry = entry(vertexID(v));
+        if (entry == null) {
+            throw new NoSuchElementException("No such vertex: " + v);
+        }
+        return entry;
+    }
+
+    /**
+     * Return the edge tail at the specified position of an entry.
+     *
+     * @param entry
+     *            an entry
+     * @param index
+     *            position, taken cyclically
+     * @return edge tail
+     */
+    @SuppressWarnings("unchecked")
+    private EdgeTail<V> tailAt(Entry entry, int index) {
+        int degree = entry.tails.length;
+        return (EdgeTail<V>) entry.tails[((index % degree) + degree) % degree];
+    }
+
+    @Override
+    Set<V> vertices() {
+        return new AbstractSet<V>() {
+
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<Entry> it = entries.iterator();
+                return new Iterator<V>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public V next() {
+                        return (V) it.next().vertex;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Vertex)) {
+                    return false;
+                }
+                Entry entry = entry(((Vertex<?>) o).getID());
+                return entry != null && o.equals(entry.vertex);
+            }
+        };
+    }
+
+    @Override
+    boolean containsVertex(V v) {
+        return entry(v.getID()) != null;
+    }
+
+    @Override
+    boolean containsTail(EdgeTail<V> tail) {
+        Entry entry = entry(tail.getSource()
+                                .getID());
+        return entry != null && entry.indexOf(tail) != -1;
+    }
+
+    @Override
+    int degree(V v) {
+        return presentEntry(v).tails.length;
+    }
+
+    @Override
+    RotationList<EdgeTail<V>> rotation(V v) {
+        Entry entry = presentEntry(v);
+        RotationList<EdgeTail<V>> list = new RotationList<>();
+        for (int i = 0; i < entry.tails.length; i++) {
+            list.add(tailAt(entry, i));
+        }
+        return list;
+    }
+
+    @Override
+    EdgeTail<V> firstTail(V v) {
+        Entry entry = presentEntry(v);
+        if (entry.tails.length == 0) {
+            throw new NoSuchElementException("No edge tails at vertex: " + v);
+        }
+        return tailAt(entry, 0);
+    }
+
+    @Override
+    EdgeTail<V> rotate(EdgeTail<V> tail, RotationDirection dir) {
+        Entry entry = entry(tail.getSource()
+                                .getID());
+        int index = entry == null ? -1 : entry.indexOf(tail);
+        if (index == -1) {
+            throw new NoSuchElementException("No such edge tail: " + tail);
+        }
+        if (dir == RotationDirection.CLOCKWISE) {
+            return tailAt(entry, index + 1);
+        } // else: COUNTERCLOCKWISE
+        return tailAt(entry, index - 1);
+    }
+
+    @Override
+    void addVertex(V v, List<EdgeTail<V>> tails) {
+        entries.put(vertexID(v), new Entry(v, tails.toArray()));
+    }
+
+    @Override
+    void removeVertex(V v) {
+        entries.remove(vertexID(v));
+    }
+
+    @Override
+    void insertTail(EdgeTail<V> newTail, EdgeTail<V> refTail, RotationDirection dir) {
+        V v = newTail.getSource();
+        Entry entry = presentEntry(v);
+        int targetIdx = entry.indexOf(refTail);
+        if (targetIdx == -1) {
+            throw new NonIncidenceException();
+        }
+        if (dir == RotationDirection.CLOCKWISE) {
+            targetIdx = targetIdx + 1;
+        }
+        Object[] tails = new Object[entry.tails.length + 1];
+        System.arraycopy(entry.tails, 0, tails, 0, targetIdx);
+        tails[targetIdx] = newTail;
+        System.arraycopy(entry.tails, targetIdx, tails, targetIdx + 1,
+                entry.tails.length - targetIdx);
+        entries.put(vertexID(v), new Entry(entry.vertex, tails));
+    }
+
+    @Override
+    void removeTail(EdgeTail<V> tail) {
+        int id = tail.getSource()
+                     .getID();
+        Entry entry = entry(id);
+        int index = entry == null ? -1 : entry.indexOf(tail);
+        if (index == -1) {
+            return;
+        }
+        Object[] tails = new Object[entry.tails.length - 1];
+        System.arraycopy(entry.tails, 0, tails, 0, index);
+        System.arraycopy(entry.tails, index + 1, tails, index, tails.length - index);
+        entries.put(id, new Entry(entry.vertex, tails));
+    }
+
+    @Override
+    void prepareConcurrentReads() {
+        // queries only read trie nodes and safely published indexes
+    }
+
+    @Override
+    RotationSystem<V> copy() {
+        return new PersistentRotationSystem<>(entries.snapshot());
+    }
+
+    @Override
+    PlaneGraph.Backend getBackend() {
+        return PlaneGraph.Backend.PERSISTENT;
+    }
+
+}
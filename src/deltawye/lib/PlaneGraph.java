@@ -14,10 +14,318 @@ public class PlaneGraph<V extends Vertex<V>>
         extends AbstractPlaneGraph<V, UndirectedEdge<V>, Circuit<V>> {
 
     /**
-     * A representation of a plane graph in the form of a mapping from vertices
-     * to a list of their incident edges in rotation order.
+     * Storage backends for the rotation system of a plane graph.
      */
-    private final Map<V, RotationList<EdgeTail<V>>> incidenceMap;
+    public enum Backend {
+        /**
+         * Mapping from vertices to lists of their incident edge tails.
+         */
+        INCIDENCE_MAP,
+        /**
+         * Flat arrays indexed by half edge and vertex IDs.
+         */
+        HALF_EDGE,
+        /**
+         * Persistent trie of immutable rotation lists, indexed by vertex IDs,
+         * which shares all unchanged rotations between copies.
+         */
+        PERSISTENT
+    }
+
+    /**
+     * A position in the journal of a plane graph, together with the state
+     * that is not recorded in the journal.
+     *
+     * @see PlaneGraph#mark()
+     */
+    static final class Mark {
+
+        /**
+         * Number of journal entries at the time of the mark.
+         */
+        private final int position;
+
+        /**
+         * Journal generation at the time of the mark.
+         */
+        private final int generation;
+
+        /**
+         * The last journal entry before the mark, or null if there is none.
+         * A rollback behind the mark removes this entry, so the mark is only
+         * valid while the journal still contains it at the same position.
+         */
+        private final Object lastEntry;
+
+        /**
+         * Whether the mark was taken in the state in which journaling
+         * started, which {@link PlaneGraph#journalBase} can restore.
+         */
+        private final boolean atBase;
+
+        /**
+         * Next unused vertex ID at the time of the mark.
+         */
+        private final int nextUnusedVertexID;
+
+        /**
+         * Next unused edge ID at the time of the mark.
+         */
+        private final int nextUnusedEdgeID;
+
+        /**
+         * Free vertex IDs at the time of the mark.
+         */
+        private final FreeIDs freeVertexIDs;
+
+        /**
+         * Free edge IDs at the time of the mark.
+         */
+        private final FreeIDs freeEdgeIDs;
+
+        /**
+         * Create a mark.
+         *
+         * @param position
+         *            number of journal entries
+         * @param generation
+         *            journal generation
+         * @param lastEntry
+         *            last journal entry, or null
+         * @param atBase
+         *            whether the graph is in the state in which journaling
+         *            started
+         * @param nextUnusedVertexID
+         *            next unused vertex ID
+         * @param nextUnusedEdgeID
+         *            next unused edge ID
+         * @param freeVertexIDs
+         *            free vertex IDs
+         * @param freeEdgeIDs
+         *            free edge IDs
+         */
+        private Mark(int position, int generation, Object lastEntry, boolean atBase,
+                int nextUnusedVertexID, int nextUnusedEdgeID, FreeIDs freeVertexIDs,
+                FreeIDs freeEdgeIDs) {
+            this.position = position;
+            this.generation = generation;
+            this.lastEntry = lastEntry;
+            this.atBase = atBase;
+            this.nextUnusedVertexID = nextUnusedVertexID;
+            this.nextUnusedEdgeID = nextUnusedEdgeID;
+            this.freeVertexIDs = freeVertexIDs;
+            this.freeEdgeIDs = freeEdgeIDs;
+        }
+    }
+
+    /**
+     * An immutable stack of IDs of removed elements, which are handed out
+     * again before new IDs. The empty stack is null. Marks and snapshots share
+     * a stack by reference.
+     */
+    private static final class FreeIDs {
+
+        /**
+         * The ID on top of the stack.
+         */
+        private final int id;
+
+        /**
+         * The rest of the stack, or null.
+         */
+        private final FreeIDs rest;
+
+        /**
+         * Create a stack.
+         *
+         * @param id
+         *            the ID on top of the stack
+         * @param rest
+         *            the rest of the stack, or null
+         */
+        private FreeIDs(int id, FreeIDs rest) {
+            this.id = id;
+            this.rest = rest;
+        }
+    }
+
+    /**
+     * A journal entry that records how to undo one change of the rotation
+     * system.
+     *
+     * <p>
+     * There are three kinds of entries: an inserted edge tail (undone by
+     * removing it), a removed edge tail together with a neighbor to reinsert
+     * it next to, and the complete previous rotation of a vertex whose
+     * rotation was replaced, added or removed as a whole.
+     *
+     * @param <V>
+     *            the type of vertices
+     */
+    private static final class JournalEntry<V extends Vertex<V>> {
+
+        /**
+         * The vertex of a rotation entry, or null.
+         */
+        private final V vertex;
+
+        /**
+         * The previous rotation of a rotation entry, or null if the vertex was
+         * absent.
+         */
+        private final List<EdgeTail<V>> rotation;
+
+        /**
+         * The inserted or removed edge tail, or null for rotation entries.
+         */
+        private final EdgeTail<V> tail;
+
+        /**
+         * The neighbor next to which a removed edge tail is reinserted, or null
+         * if the edge tail was inserted.
+         */
+        private final EdgeTail<V> ref;
+
+        /**
+         * The direction of reinsertion relative to {@link #ref}.
+         */
+        private final RotationDirection dir;
+
+        /**
+         * Create a journal entry.
+         *
+         * @param vertex
+         *            vertex of a rotation entry
+         * @param rotation
+         *            previous rotation of a rotation entry
+         * @param tail
+         *            inserted or removed edge tail
+         * @param ref
+         *            reinsertion neighbor of a removed edge tail
+         * @param dir
+         *            reinsertion direction of a removed edge tail
+         */
+        private JournalEntry(V vertex, List<EdgeTail<V>> rotation, EdgeTail<V> tail,
+                EdgeTail<V> ref, RotationDirection dir) {
+            this.vertex = vertex;
+            this.rotation = rotation;
+            this.tail = tail;
+            this.ref = ref;
+            this.dir = dir;
+        }
+
+        /**
+         * Undo the recorded change in the specified rotation system, without
+         * any further bookkeeping.
+         *
+         * @param rotationSystem
+         *            a rotation system in the state right after the change
+         */
+        private void undo(RotationSystem<V> rotationSystem) {
+            if (tail == null) {
+                rotationSystem.removeVertex(vertex);
+                if (rotation != null) {
+                    rotationSystem.addVertex(vertex, rotation);
+                }
+            } else if (ref == null) {
+                rotationSystem.removeTail(tail);
+            } else {
+                rotationSystem.insertTail(tail, ref, dir);
+            }
+        }
+    }
+
+    /**
+     * Factor of the graph size (vertices plus edge tails) beyond which the
+     * journal is compacted.
+     */
+    static final int JOURNAL_LIMIT_FACTOR = 16;
+
+    /**
+     * Least number of journal entries at which the journal is compacted.
+     */
+    static final int JOURNAL_LIMIT_MIN = 1024;
+
+    /**
+     * The rotation system of this graph, which stores for every vertex its
+     * incident edge tails in clockwise order.
+     */
+    private final RotationSystem<V> rotationSystem;
+
+    /**
+     * Registry of faces: maps the half edge ID of every edge tail to the face
+     * that contains it.
+     *
+     * <p>
+     * Faces that are affected by a change of the rotation system are removed
+     * from the registry immediately, and their edge tails are recorded in
+     * {@link #staleEdgeTails}. The new faces are traced lazily on the next face
+     * query (see {@link #updateFaces()}), because the graph may be in an
+     * inconsistent state between the subatomic updates of a transformation.
+     *
+     * <p>
+     * The registry is stored in persistent maps, so a snapshot shares it in
+     * constant time, and a change on either side copies only the trie nodes
+     * of the changed faces.
+     */
+    private PersistentIntMap<Circuit<V>> faceMap;
+
+    /**
+     * The set of faces in the registry, keyed by the half edge ID of their
+     * first edge tail.
+     */
+    private PersistentIntMap<Circuit<V>> faceSet;
+
+    /**
+     * Edge tails whose face has to be traced again, keyed by half edge ID.
+     */
+    private PersistentIntMap<EdgeTail<V>> staleEdgeTails;
+
+    /**
+     * The number of vertices in the graph.
+     */
+    private int numberOfVertices;
+
+    /**
+     * The number of edge tails in the graph (twice the number of edges).
+     */
+    private int numberOfEdgeTails;
+
+    /**
+     * Vertices whose rotation has changed since {@link #startRecordingChanges()}
+     * was called, or null if changes are not recorded.
+     */
+    private Set<V> changedVertices;
+
+    /**
+     * Changes of the rotation system since the journal was started or last
+     * compacted, in the order of the changes, or null if changes are not
+     * journaled.
+     */
+    private List<JournalEntry<V>> journal;
+
+    /**
+     * Generation of the journal. It changes whenever the journal is compacted
+     * or discarded, which invalidates the positions of earlier marks.
+     */
+    private int journalGeneration;
+
+    /**
+     * Whether the current journal generation started in the state in which
+     * journaling started.
+     */
+    private boolean journalStartsAtBase;
+
+    /**
+     * Copy of the rotation system in the state in which journaling started,
+     * or null if the journal has not been compacted since.
+     */
+    private RotationSystem<V> journalBase;
+
+    /**
+     * Number of journal entries at which the journal is compacted.
+     */
+    private int journalLimit;
 
     /**
      * An unused vertex ID that can be used for new elements.
@@ -29,6 +337,18 @@ public class PlaneGraph<V extends Vertex<V>>
      */
     private int nextUnusedEdgeID;
 
+    /**
+     * IDs of removed vertices, which are handed out before
+     * {@link #nextUnusedVertexID}.
+     */
+    private FreeIDs freeVertexIDs;
+
+    /**
+     * IDs of removed edges, which are handed out before
+     * {@link #nextUnusedEdgeID}.
+     */
+    private FreeIDs freeEdgeIDs;
+
     /**
      * Create PlaneGraph from an incidence map representation.
      *
@@ -38,14 +358,101 @@ public class PlaneGraph<V extends Vertex<V>>
      *             if the incidence map representation is invalid
      */
     public PlaneGraph(Map<V, RotationList<EdgeTail<V>>> incidenceMap) {
-        this.incidenceMap = incidenceMap;
+        this(new IncidenceMapRotationSystem<>(incidenceMap));
+    }
+
+    /**
+     * Create PlaneGraph from a rotation system.
+     *
+     * @param rotationSystem
+     *            rotation system, used directly (not copied)
+     * @throws IllegalArgumentException
+     *             if the rotation system is invalid
+     */
+    PlaneGraph(RotationSystem<V> rotationSystem) {
+        this.rotationSystem = rotationSystem;
         if (!isValid()) {
             throw new IllegalArgumentException("Invalid graph representation.");
         }
+        resetFaceRegistry();
+        numberOfVertices = rotationSystem.vertices()
+                                         .size();
+        numberOfEdgeTails = staleEdgeTails.size();
+        nextUnusedVertexID = 1 + maxVertexID();
+        nextUnusedEdgeID = 1 + maxEdgeID();
+    }
+
+    /**
+     * Create a copy of the specified PlaneGraph that uses the specified storage
+     * backend.
+     *
+     * <p>
+     * The face registry of the original graph is reused, so the faces of the
+     * copy need not be traced again.
+     *
+     * @param original
+     *            original graph to be copied
+     * @param backend
+     *            storage backend of the copy
+     */
+    PlaneGraph(PlaneGraph<V> original, Backend backend) {
+        original.updateFaces();
+        rotationSystem = original.copyRotationSystem(backend);
+        faceMap = original.faceMap.snapshot();
+        faceSet = original.faceSet.snapshot();
+        staleEdgeTails = new PersistentIntMap<>();
+        numberOfVertices = original.numberOfVertices;
+        numberOfEdgeTails = original.numberOfEdgeTails;
         nextUnusedVertexID = 1 + maxVertexID();
         nextUnusedEdgeID = 1 + maxEdgeID();
     }
 
+    /**
+     * Create a snapshot of the specified PlaneGraph that uses the specified
+     * copy of its rotation system.
+     *
+     * <p>
+     * The face registry of the original graph is shared structurally, so
+     * neither the graph nor the registry is traversed here, and faces that
+     * were already traced need not be traced again.
+     *
+     * @param original
+     *            original graph
+     * @param rotationSystem
+     *            independent copy of the rotation system of the original,
+     *            used directly (not copied)
+     * @see #snapshot()
+     */
+    PlaneGraph(PlaneGraph<V> original, RotationSystem<V> rotationSystem) {
+        this.rotationSystem = rotationSystem;
+        faceMap = original.faceMap.snapshot();
+        faceSet = original.faceSet.snapshot();
+        staleEdgeTails = original.staleEdgeTails.snapshot();
+        numberOfVertices = original.numberOfVertices;
+        numberOfEdgeTails = original.numberOfEdgeTails;
+        nextUnusedVertexID = original.nextUnusedVertexID;
+        nextUnusedEdgeID = original.nextUnusedEdgeID;
+        freeVertexIDs = original.freeVertexIDs;
+        freeEdgeIDs = original.freeEdgeIDs;
+    }
+
+    /**
+     * Return an independent snapshot of this graph.
+     *
+     * <p>
+     * With the {@link Backend#PERSISTENT} backend, this takes constant time,
+     * and the snapshot shares the rotation of every vertex with this graph
+     * until either graph changes it. With the other backends, the rotation
+     * system is copied. In either case, the face registry is shared, and each
+     * graph copies only the parts for the faces it changes. The journal of this graph (see
+     * {@link #mark()}) is not shared.
+     *
+     * @return snapshot of this graph
+     */
+    public PlaneGraph<V> snapshot() {
+        return new PlaneGraph<>(this, rotationSystem.copy());
+    }
+
     /**
      * Convert an adjacency list representation to an incidence map.
      *
@@ -137,19 +544,21 @@ public class PlaneGraph<V extends Vertex<V>>
             }
         }
         Map<V, RotationList<EdgeTail<V>>> incidenceMap = new HashMap<>();
+        InternTable<UndirectedEdge<V>> edges = new InternTable<>();
         Set<Integer> rootedLeft = new HashSet<>();
         incidenceList.forEach((v, vEdgeIDs) -> {
             RotationList<EdgeTail<V>> vEdges = new RotationList<>();
             incidenceMap.put(v, vEdges);
             for (int eid : vEdgeIDs) {
-                UndirectedEdge<V> edge = new UndirectedEdge<>(eid, edgeMapLeft.get(eid),
-                        edgeMapRight.get(eid));
+                UndirectedEdge<V> edge = edges.intern(eid,
+                        id -> new UndirectedEdge<>(id, edgeMapLeft.get(id),
+                                edgeMapRight.get(id)));
                 EdgeTail<V> edgeTail;
                 if (rootedLeft.contains(eid)) {
-                    edgeTail = new EdgeTail<>(edge, EdgeTail.Side.RIGHT);
+                    edgeTail = edge.rightTail();
                 } else {
                     rootedLeft.add(eid);
-                    edgeTail = new EdgeTail<>(edge, EdgeTail.Side.LEFT);
+                    edgeTail = edge.leftTail();
                 }
                 vEdges.add(edgeTail);
             }
@@ -184,10 +593,45 @@ public class PlaneGraph<V extends Vertex<V>>
      */
     public Map<V, RotationList<EdgeTail<V>>> getIncidenceMap() {
         Map<V, RotationList<EdgeTail<V>>> newIncidenceMap = new HashMap<>();
-        incidenceMap.forEach((k, v) -> newIncidenceMap.put(k, new RotationList<>(v)));
+        for (V v : vertices()) {
+            newIncidenceMap.put(v, rotationSystem.rotation(v));
+        }
         return newIncidenceMap;
     }
 
+    /**
+     * Return the storage backend of this graph.
+     *
+     * @return backend
+     */
+    public Backend getBackend() {
+        return rotationSystem.getBackend();
+    }
+
+    /**
+     * Return a copy of the rotation system of this graph, stored in the
+     * specified backend.
+     *
+     * @param backend
+     *            the backend of the copy
+     * @return independent rotation system
+     */
+    RotationSystem<V> copyRotationSystem(Backend backend) {
+        if (backend == rotationSystem.getBackend()) {
+            return rotationSystem.copy();
+        }
+        switch (backend) {
+        case HALF_EDGE:
+            return new HalfEdgeRotationSystem<>(rotationSystem);
+        case PERSISTENT:
+            return new PersistentRotationSystem<>(rotationSystem);
+        case INCIDENCE_MAP:
+            return new IncidenceMapRotationSystem<>(getIncidenceMap());
+        default:
+            throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+    }
+
     /**
      * Return the integer ID of the largest vertex in this graph.
      *
@@ -223,23 +667,55 @@ public class PlaneGraph<V extends Vertex<V>>
     }
 
     /**
-     * Return a fresh vertex ID.
+     * Return a vertex ID that is not in use.
+     *
+     * <p>
+     * IDs of vertices that have been removed from this graph are handed out
+     * again (the most recently removed one first) before new IDs, so the IDs
+     * stay about as compact as the vertex set and tables indexed by ID stay
+     * dense.
      *
      * @return unused vertex ID
      */
     public int getUnusedVertexID() {
+        if (freeVertexIDs != null) {
+            int id = freeVertexIDs.id;
+            freeVertexIDs = freeVertexIDs.rest;
+            return id;
+        }
         return nextUnusedVertexID++;
     }
 
     /**
-     * Return a fresh edge ID.
+     * Return an edge ID that is not in use.
+     *
+     * <p>
+     * Like vertex IDs, IDs of removed edges are handed out again before new
+     * IDs.
      *
      * @return unused edge ID
+     * @see #getUnusedVertexID()
      */
     public int getUnusedEdgeID() {
+        if (freeEdgeIDs != null) {
+            int id = freeEdgeIDs.id;
+            freeEdgeIDs = freeEdgeIDs.rest;
+            return id;
+        }
         return nextUnusedEdgeID++;
     }
 
+    /**
+     * Make the ID of an edge that is no longer in use available to
+     * {@link #getUnusedEdgeID()} again.
+     *
+     * @param id
+     *            ID of a removed edge
+     */
+    void releaseEdgeID(int id) {
+        freeEdgeIDs = new FreeIDs(id, freeEdgeIDs);
+    }
+
     /**
      * Return whether the internal graph representation is valid.
      *
@@ -255,9 +731,8 @@ public class PlaneGraph<V extends Vertex<V>>
     public boolean isValid() {
         Map<UndirectedEdge<V>, Integer> edgeCount = new HashMap<>();
         Map<UndirectedEdge<V>, Set<V>> edgeEnds = new HashMap<>();
-        for (Map.Entry<V, RotationList<EdgeTail<V>>> entry : incidenceMap.entrySet()) {
-            V v = entry.getKey();
-            for (EdgeTail<V> et : entry.getValue()) {
+        for (V v : vertices()) {
+            for (EdgeTail<V> et : rotationSystem.rotation(v)) {
                 UndirectedEdge<V> e = et.getEdge();
                 if (!e.isIncidentTo(v)) {
                     // Edge is not incident to key vertex.
@@ -407,9 +882,19 @@ public class PlaneGraph<V extends Vertex<V>>
                 + numberOfFaces() + " faces.";
     }
 
+    @Override
+    public int order() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public int size() {
+        return numberOfEdgeTails / 2;
+    }
+
     @Override
     public Set<V> vertices() {
-        return incidenceMap.keySet();
+        return rotationSystem.vertices();
     }
 
     @Override
@@ -426,15 +911,24 @@ public class PlaneGraph<V extends Vertex<V>>
      */
     public Set<EdgeTail<V>> edgeTails() {
         Set<EdgeTail<V>> edgeSet = new HashSet<>();
-        incidenceMap.values()
-                    .forEach(es -> edgeSet.addAll(es));
+        for (V v : vertices()) {
+            edgeSet.addAll(rotationSystem.rotation(v));
+        }
         return edgeSet;
     }
 
+    /**
+     * Return a read-only view of the set of faces in the graph.
+     *
+     * <p>
+     * The returned set reflects later changes of the graph, so it must not be
+     * iterated while the graph is modified.
+     */
     @Override
     public Set<Circuit<V>> faces() {
-        Set<EdgeTail<V>> edgeTails = edgeTails();
-        if (edgeTails.isEmpty()) {
+        updateFaces();
+        if (faceSet.isEmpty()) {
+            // graph without edges
             if (vertices().size() > 1) {
                 throw new InvalidWalkException("Graph must be connected.");
             }
@@ -442,17 +936,29 @@ public class PlaneGraph<V extends Vertex<V>>
                              .map(v -> new Circuit<>(v))
                              .collect(Collectors.toSet());
         }
-        Set<Circuit<V>> faces = new HashSet<>();
-        Set<EdgeTail<V>> visited = new HashSet<>();
-        // Detect all faces by traversing all edge tails once.
-        for (EdgeTail<V> e : edgeTails) {
-            if (!visited.contains(e)) {
-                Circuit<V> f = getFace(e);
-                faces.add(f);
-                visited.addAll(f.edgeList());
+        // read through to the current registry, which a snapshot may replace
+        return new AbstractSet<Circuit<V>>() {
+
+            @Override
+            public Iterator<Circuit<V>> iterator() {
+                return faceSet.iterator();
             }
-        }
-        return faces;
+
+            @Override
+            public int size() {
+                return faceSet.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Circuit) || ((Circuit<?>) o).length() == 0) {
+                    return false;
+                }
+                EdgeTail<?> first = ((Circuit<?>) o).edgeList()
+                                                    .getFirst();
+                return o.equals(faceSet.get(first.halfEdgeID()));
+            }
+        };
     }
 
     /**
@@ -464,6 +970,115 @@ public class PlaneGraph<V extends Vertex<V>>
      * @return the containing face circuit
      */
     public Circuit<V> getFace(EdgeTail<V> start) {
+        updateFaces();
+        Circuit<V> face = faceMap.get(start.halfEdgeID());
+        if (face != null) {
+            return face;
+        }
+        return traceFace(start);
+    }
+
+    /**
+     * Return an iterator over the edge tails of the face that contains the
+     * edge tail {@code start}, in clockwise order beginning with {@code start}.
+     *
+     * <p>
+     * The iterator follows {@link #nextEdge(EdgeTail, RotationDirection)} on
+     * demand and neither builds nor registers a {@link Circuit}, so the graph
+     * must not be modified during the iteration.
+     *
+     * @param start
+     *            an edge tail in the face
+     * @return iterator over the edge tails of the face
+     */
+    public Iterator<EdgeTail<V>> faceIterator(EdgeTail<V> start) {
+        return new Iterator<EdgeTail<V>>() {
+
+            private EdgeTail<V> cursor = start;
+
+            @Override
+            public boolean hasNext() {
+                return cursor != null;
+            }
+
+            @Override
+            public EdgeTail<V> next() {
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                EdgeTail<V> cur = cursor;
+                cursor = nextEdge(cur, RotationDirection.CLOCKWISE);
+                if (cursor.equals(start)) {
+                    cursor = null;
+                }
+                return cur;
+            }
+        };
+    }
+
+    /**
+     * Return the number of edge tails in the face that contains the edge tail
+     * {@code start}.
+     *
+     * <p>
+     * The face is walked without building a {@link Circuit}.
+     *
+     * @param start
+     *            an edge tail in the face
+     * @return length of the face
+     */
+    public int faceLength(EdgeTail<V> start) {
+        return boundedFaceLength(start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return whether the face that contains the edge tail {@code start} has at
+     * most {@code k} edge tails.
+     *
+     * <p>
+     * At most {@code k} steps of the face are walked, so this is cheap for
+     * small {@code k} even if the face is long.
+     *
+     * @param start
+     *            an edge tail in the face
+     * @param k
+     *            maximum length
+     * @return true if the face has length at most {@code k}
+     */
+    public boolean faceDegreeAtMost(EdgeTail<V> start, int k) {
+        return boundedFaceLength(start, k) <= k;
+    }
+
+    /**
+     * Return the length of the face that contains the edge tail {@code start},
+     * but stop counting after {@code k + 1}.
+     *
+     * @param start
+     *            an edge tail in the face
+     * @param k
+     *            maximum length of interest
+     * @return length of the face, or {@code k + 1} if it is longer than
+     *         {@code k}
+     */
+    private int boundedFaceLength(EdgeTail<V> start, int k) {
+        int length = 1;
+        EdgeTail<V> cur = nextEdge(start, RotationDirection.CLOCKWISE);
+        while (!cur.equals(start) && length <= k) {
+            length++;
+            cur = nextEdge(cur, RotationDirection.CLOCKWISE);
+        }
+        return length;
+    }
+
+    /**
+     * Trace the face that contains the edge tail {@code start} by traversing
+     * adjacent edges in clockwise direction.
+     *
+     * @param start
+     *            an edge tail in the face
+     * @return the containing face circuit
+     */
+    private Circuit<V> traceFace(EdgeTail<V> start) {
         List<EdgeTail<V>> faceEdges = new ArrayList<>();
         faceEdges.add(start);
         EdgeTail<V> cur = nextEdge(start, RotationDirection.CLOCKWISE);
@@ -474,19 +1089,454 @@ public class PlaneGraph<V extends Vertex<V>>
         return new Circuit<>(faceEdges);
     }
 
+    /**
+     * Bring all lazily maintained state of this graph up to date.
+     *
+     * <p>
+     * Until the graph is modified again, queries do not modify it, so they may
+     * be issued from several threads.
+     */
+    void prepareConcurrentReads() {
+        updateFaces();
+        rotationSystem.prepareConcurrentReads();
+    }
+
+    /**
+     * Trace the faces of all stale edge tails and add them to the face
+     * registry.
+     */
+    private void updateFaces() {
+        if (staleEdgeTails.isEmpty()) {
+            return;
+        }
+        for (EdgeTail<V> e : staleEdgeTails) {
+            if (faceMap.get(e.halfEdgeID()) == null && rotationSystem.containsTail(e)) {
+                Circuit<V> face = traceFace(e);
+                LinkedList<EdgeTail<V>> tails = face.edgeList();
+                faceSet.put(tails.getFirst()
+                                 .halfEdgeID(), face);
+                for (EdgeTail<V> f : tails) {
+                    faceMap.put(f.halfEdgeID(), face);
+                }
+            }
+        }
+        staleEdgeTails = new PersistentIntMap<>();
+    }
+
+    /**
+     * Remove the face that contains the specified edge tail from the face
+     * registry and mark its edge tails as stale.
+     *
+     * <p>
+     * Nothing happens if the edge tail is not in the registry.
+     *
+     * @param e
+     *            an edge tail
+     */
+    private void invalidateFace(EdgeTail<V> e) {
+        Circuit<V> face = faceMap.get(e.halfEdgeID());
+        if (face == null) {
+            return;
+        }
+        LinkedList<EdgeTail<V>> tails = face.edgeList();
+        faceSet.remove(tails.getFirst()
+                            .halfEdgeID());
+        for (EdgeTail<V> f : tails) {
+            faceMap.remove(f.halfEdgeID());
+            staleEdgeTails.put(f.halfEdgeID(), f);
+        }
+    }
+
+    /**
+     * Empty the face registry and mark all edge tails as stale.
+     */
+    private void resetFaceRegistry() {
+        faceMap = new PersistentIntMap<>();
+        faceSet = new PersistentIntMap<>();
+        staleEdgeTails = new PersistentIntMap<>();
+        for (EdgeTail<V> tail : edgeTails()) {
+            staleEdgeTails.put(tail.halfEdgeID(), tail);
+        }
+    }
+
+    /**
+     * Return the face registry, which maps half edge IDs to faces.
+     *
+     * @return the face registry
+     */
+    PersistentIntMap<Circuit<V>> faceRegistry() {
+        return faceMap;
+    }
+
+    /**
+     * Mark the specified edge tail, which has just been inserted, as stale.
+     *
+     * <p>
+     * Edge IDs may be reused (e.g. after a rollback), and edge tails are equal
+     * if their IDs are. An equal edge tail of a removed edge is therefore
+     * replaced, so that the face is traced from the current edge tail.
+     *
+     * @param tail
+     *            a present edge tail
+     */
+    private void markStale(EdgeTail<V> tail) {
+        staleEdgeTails.put(tail.halfEdgeID(), tail);
+    }
+
+    /**
+     * Mark the specified edge tails, which have just been inserted, as stale.
+     *
+     * @param tails
+     *            present edge tails
+     * @see #markStale(EdgeTail)
+     */
+    private void markStale(Collection<EdgeTail<V>> tails) {
+        for (EdgeTail<V> tail : tails) {
+            markStale(tail);
+        }
+    }
+
+    /**
+     * Start recording the vertices whose rotation changes, including added and
+     * removed vertices.
+     *
+     * <p>
+     * This allows derived structures (such as a {@link MedialGraph}) to be
+     * updated locally after a transformation.
+     */
+    void startRecordingChanges() {
+        changedVertices = new HashSet<>();
+    }
+
+    /**
+     * Stop recording changes and return the vertices whose rotation has
+     * changed since {@link #startRecordingChanges()} was called.
+     *
+     * @return the changed vertices (some of which may have been removed)
+     * @throws IllegalStateException
+     *             if changes are not being recorded
+     */
+    Set<V> stopRecordingChanges() {
+        if (changedVertices == null) {
+            throw new IllegalStateException("Changes are not being recorded.");
+        }
+        Set<V> changed = changedVertices;
+        changedVertices = null;
+        return changed;
+    }
+
+    /**
+     * Record that the rotation of the specified vertex has changed.
+     *
+     * @param v
+     *            a changed vertex
+     */
+    private void recordChange(V v) {
+        if (changedVertices != null) {
+            changedVertices.add(v);
+        }
+    }
+
+    /**
+     * Return a mark of the current state of this graph, and journal all
+     * subsequent changes of the rotation system.
+     *
+     * <p>
+     * Inserting or removing a single edge tail is journaled in constant time
+     * by recording the inverse operation. Adding, removing or replacing the
+     * whole rotation of a vertex records its previous rotation, which costs
+     * as much as the change itself. The graph can then be restored to the
+     * marked state by {@link #rollback(Mark)}, which is much cheaper than
+     * keeping a copy of the graph around.
+     *
+     * <p>
+     * The journal is kept within a constant multiple of the graph size: once
+     * it grows beyond that, it is compacted into a copy of the rotation system
+     * in the state in which journaling started (amortized constant time per
+     * change). After that, only marks taken in that state can be rolled back
+     * to.
+     *
+     * @return a mark of the current state
+     */
+    Mark mark() {
+        if (journal == null) {
+            journal = new ArrayList<>();
+            journalStartsAtBase = true;
+            journalBase = null;
+            journalLimit = JOURNAL_LIMIT_FACTOR * (numberOfVertices + numberOfEdgeTails)
+                    + JOURNAL_LIMIT_MIN;
+        }
+        int position = journal.size();
+        return new Mark(position, journalGeneration,
+                position == 0 ? null : journal.get(position - 1),
+                journalStartsAtBase && position == 0, nextUnusedVertexID, nextUnusedEdgeID,
+                freeVertexIDs, freeEdgeIDs);
+    }
+
+    /**
+     * Undo all changes since the specified mark was taken.
+     *
+     * <p>
+     * The mark and all earlier marks stay valid; marks taken after it become
+     * invalid. Fresh IDs are handed out again exactly as after the mark.
+     *
+     * @param mark
+     *            a mark of this graph
+     * @throws IllegalStateException
+     *             if changes are not journaled or the mark is no longer valid
+     */
+    void rollback(Mark mark) {
+        if (journal != null && mark.generation == journalGeneration
+                && mark.position <= journal.size()
+                && (mark.position == 0 || journal.get(mark.position - 1) == mark.lastEntry)) {
+            for (int i = journal.size() - 1; i >= mark.position; i--) {
+                undo(journal.remove(i));
+            }
+        } else if (journal != null && mark.atBase && journalBase != null) {
+            restoreJournalBase();
+        } else {
+            throw new IllegalStateException("Invalid journal mark.");
+        }
+        nextUnusedVertexID = mark.nextUnusedVertexID;
+        nextUnusedEdgeID = mark.nextUnusedEdgeID;
+        freeVertexIDs = mark.freeVertexIDs;
+        freeEdgeIDs = mark.freeEdgeIDs;
+    }
+
+    /**
+     * Stop journaling changes and discard the journal. All marks become
+     * invalid.
+     */
+    void clearJournal() {
+        journal = null;
+        journalBase = null;
+        journalGeneration++;
+    }
+
+    /**
+     * Append an entry to the journal, if changes are journaled.
+     *
+     * @param entry
+     *            the new entry
+     */
+    private void journal(JournalEntry<V> entry) {
+        journal.add(entry);
+        if (journal.size() > journalLimit) {
+            compactJournal();
+        }
+    }
+
+    /**
+     * Record the current rotation of the specified vertex in the journal,
+     * before it is replaced, added or removed as a whole.
+     *
+     * @param v
+     *            a vertex that may be absent
+     */
+    private void journalRotation(V v) {
+        if (journal != null) {
+            journal(new JournalEntry<>(v,
+                    rotationSystem.containsVertex(v) ? rotationSystem.rotation(v) : null,
+                    null, null, null));
+        }
+    }
+
+    /**
+     * Record in the journal that the specified edge tail has just been
+     * inserted.
+     *
+     * @param tail
+     *            the inserted edge tail
+     */
+    private void journalInsertion(EdgeTail<V> tail) {
+        if (journal != null) {
+            journal(new JournalEntry<>(null, null, tail, null, null));
+        }
+    }
+
+    /**
+     * Record in the journal how to reinsert the specified edge tail at the same
+     * position, before it is removed.
+     *
+     * @param tail
+     *            an edge tail that is present
+     */
+    private void journalRemoval(EdgeTail<V> tail) {
+        if (journal == null) {
+            return;
+        }
+        V v = tail.getSource();
+        if (rotationSystem.degree(v) == 1) {
+            journalRotation(v);
+        } else if (rotationSystem.firstTail(v)
+                                 .equals(tail)) {
+            // reinserting before the successor makes the tail first again
+            journal(new JournalEntry<>(null, null, tail,
+                    rotationSystem.rotate(tail, RotationDirection.CLOCKWISE),
+                    RotationDirection.COUNTERCLOCKWISE));
+        } else {
+            journal(new JournalEntry<>(null, null, tail,
+                    rotationSystem.rotate(tail, RotationDirection.COUNTERCLOCKWISE),
+                    RotationDirection.CLOCKWISE));
+        }
+    }
+
+    /**
+     * Undo the change recorded by the specified journal entry, keeping the
+     * face registry and the counters up to date.
+     *
+     * @param entry
+     *            the last entry of the journal
+     */
+    private void undo(JournalEntry<V> entry) {
+        EdgeTail<V> tail = entry.tail;
+        if (tail == null) {
+            restoreRotation(entry.vertex, entry.rotation);
+            return;
+        }
+        if (entry.ref == null) {
+            invalidateFace(tail);
+            invalidateFace(tail.otherSide());
+            entry.undo(rotationSystem);
+            numberOfEdgeTails--;
+        } else {
+            entry.undo(rotationSystem);
+            numberOfEdgeTails++;
+            invalidateFace(rotationSystem.rotate(tail, RotationDirection.COUNTERCLOCKWISE)
+                                         .otherSide());
+            invalidateFace(tail.otherSide());
+            markStale(tail);
+        }
+        recordChange(tail.getSource());
+    }
+
+    /**
+     * Drop the journal entries, first saving the state in which journaling
+     * started if it cannot be restored otherwise. Marks that are not taken in
+     * that state become invalid.
+     */
+    private void compactJournal() {
+        if (journalStartsAtBase && journalBase == null) {
+            RotationSystem<V> base = rotationSystem.copy();
+            for (int i = journal.size() - 1; i >= 0; i--) {
+                journal.get(i)
+                       .undo(base);
+            }
+            journalBase = base;
+        }
+        journal.clear();
+        journalGeneration++;
+        journalStartsAtBase = false;
+        journalLimit = Math.max(journalLimit,
+                JOURNAL_LIMIT_FACTOR * (numberOfVertices + numberOfEdgeTails)
+                        + JOURNAL_LIMIT_MIN);
+    }
+
+    /**
+     * Restore the state in which journaling started from the saved copy, and
+     * start a new journal generation in that state.
+     */
+    private void restoreJournalBase() {
+        for (V v : new ArrayList<>(rotationSystem.vertices())) {
+            rotationSystem.removeVertex(v);
+            recordChange(v);
+        }
+        numberOfVertices = 0;
+        numberOfEdgeTails = 0;
+        for (V v : journalBase.vertices()) {
+            RotationList<EdgeTail<V>> rotation = journalBase.rotation(v);
+            rotationSystem.addVertex(v, rotation);
+            recordChange(v);
+            numberOfVertices++;
+            numberOfEdgeTails += rotation.size();
+        }
+        resetFaceRegistry();
+        journal.clear();
+        journalGeneration++;
+        journalStartsAtBase = true;
+    }
+
+    /**
+     * Replace the rotation of the specified vertex without journaling.
+     *
+     * @param v
+     *            a vertex that may be absent
+     * @param rotation
+     *            the new rotation, or null to remove the vertex
+     */
+    private void restoreRotation(V v, List<EdgeTail<V>> rotation) {
+        if (rotationSystem.containsVertex(v)) {
+            for (EdgeTail<V> e : rotationSystem.rotation(v)) {
+                invalidateFace(e);
+            }
+            numberOfEdgeTails -= rotationSystem.degree(v);
+            rotationSystem.removeVertex(v);
+            numberOfVertices--;
+        }
+        if (rotation != null) {
+            rotationSystem.addVertex(v, rotation);
+            markStale(rotation);
+            numberOfVertices++;
+            numberOfEdgeTails += rotation.size();
+        }
+        recordChange(v);
+    }
+
+    /**
+     * Replace the rotations of several vertices at once.
+     *
+     * <p>
+     * The specified vertices are removed together with their edge tails, and
+     * the vertices in {@code rotations} are (re)inserted with the specified
+     * edge tails. The graph must be consistent after all replacements have
+     * been made, but it may be inconsistent in between.
+     *
+     * @param removed
+     *            vertices to remove, may be absent
+     * @param rotations
+     *            new rotations of (new or existing) vertices
+     */
+    void replaceRotations(Collection<V> removed,
+            Map<V, ? extends List<EdgeTail<V>>> rotations) {
+        Set<V> replaced = new HashSet<>(removed);
+        replaced.addAll(rotations.keySet());
+        for (V v : replaced) {
+            journalRotation(v);
+        }
+        for (V v : replaced) {
+            if (rotationSystem.containsVertex(v)) {
+                for (EdgeTail<V> e : rotationSystem.rotation(v)) {
+                    invalidateFace(e);
+                }
+                numberOfEdgeTails -= rotationSystem.degree(v);
+                rotationSystem.removeVertex(v);
+                numberOfVertices--;
+                recordChange(v);
+            }
+        }
+        for (Map.Entry<V, ? extends List<EdgeTail<V>>> entry : rotations.entrySet()) {
+            rotationSystem.addVertex(entry.getKey(), entry.getValue());
+            markStale(entry.getValue());
+            numberOfVertices++;
+            numberOfEdgeTails += entry.getValue()
+                                      .size();
+            recordChange(entry.getKey());
+        }
+    }
+
     @Override
     public RotationList<V> neighbors(V vertex) {
-        return new RotationList<>(incidenceMap.get(vertex)
-                                              .stream()
-                                              .map(e -> e.traverseFrom(vertex))
+        return new RotationList<>(rotationSystem.rotation(vertex)
+                                                .stream()
+                                                .map(e -> e.traverseFrom(vertex))
                                               .collect(Collectors.toList()));
     }
 
     @Override
     public RotationList<UndirectedEdge<V>> incidentEdges(V vertex) {
-        return new RotationList<>(incidenceMap.get(vertex)
-                                              .stream()
-                                              .map(EdgeTail::getEdge)
+        return new RotationList<>(rotationSystem.rotation(vertex)
+                                                .stream()
+                                                .map(EdgeTail::getEdge)
                                               .collect(Collectors.toList()));
     }
 
@@ -498,7 +1548,12 @@ public class PlaneGraph<V extends Vertex<V>>
      * @return list of edge tails
      */
     public RotationList<EdgeTail<V>> incidentEdgeTails(V vertex) {
-        return new RotationList<>(incidenceMap.get(vertex));
+        return rotationSystem.rotation(vertex);
+    }
+
+    @Override
+    public int degree(V vertex) {
+        return rotationSystem.degree(vertex);
     }
 
     /**
@@ -525,9 +1580,7 @@ public class PlaneGraph<V extends Vertex<V>>
      * @return the next edge in the specified direction
      */
     public EdgeTail<V> nextEdge(EdgeTail<V> edge, RotationDirection dir) {
-        V focus = edge.getTarget();
-        return incidenceMap.get(focus)
-                           .rotateAt(edge.otherSide(), dir);
+        return rotationSystem.rotate(edge.otherSide(), dir);
     }
 
     /**
@@ -718,7 +1771,17 @@ public class PlaneGraph<V extends Vertex<V>>
      * @return true if a Delta-Wye transformation can be performed
      */
     public boolean canReduceDeltaWye(EdgeTail<V> e) {
-        return canReduceDeltaWye(getFace(e));
+        // The face must consist of three edge tails with distinct sources,
+        // which implies that it is a cycle of three distinct edges.
+        if (boundedFaceLength(e, 3) != 3) {
+            return false;
+        }
+        EdgeTail<V> f = nextEdge(e, RotationDirection.CLOCKWISE);
+        EdgeTail<V> g = nextEdge(f, RotationDirection.CLOCKWISE);
+        V u = e.getSource();
+        V v = f.getSource();
+        V w = g.getSource();
+        return !u.equals(v) && !v.equals(w) && !w.equals(u);
     }
 
     /**
@@ -862,9 +1925,7 @@ public class PlaneGraph<V extends Vertex<V>>
      */
     public boolean isEmptyLoop(EdgeTail<V> e) {
         // We are looking for a face with one edge.
-        // nextEdge(e, RotationDirection.CLOCKWISE).equals(e);
-        // getFace(e).length() == 1;
-        return getFace(e).isLoop();
+        return faceDegreeAtMost(e, 1);
     }
 
     /**
@@ -875,7 +1936,11 @@ public class PlaneGraph<V extends Vertex<V>>
      * @return true if the edge belongs to an empty digon
      */
     public boolean isEmptyDigon(EdgeTail<V> e) {
-        return getFace(e).isDigon();
+        if (boundedFaceLength(e, 2) != 2) {
+            return false;
+        }
+        EdgeTail<V> f = nextEdge(e, RotationDirection.CLOCKWISE);
+        return e.getID() != f.getID();
     }
 
     /**
@@ -886,7 +1951,12 @@ public class PlaneGraph<V extends Vertex<V>>
      * @return true if the edge belongs to an empty triangle
      */
     public boolean isEmptyTriangle(EdgeTail<V> e) {
-        return getFace(e).isTriangle();
+        if (boundedFaceLength(e, 3) != 3) {
+            return false;
+        }
+        EdgeTail<V> f = nextEdge(e, RotationDirection.CLOCKWISE);
+        EdgeTail<V> g = nextEdge(f, RotationDirection.CLOCKWISE);
+        return e.getID() != f.getID() && f.getID() != g.getID() && g.getID() != e.getID();
     }
 
     /**
@@ -933,7 +2003,7 @@ public class PlaneGraph<V extends Vertex<V>>
      *             if the provided vertex is not fresh
      */
     public V addStarVertexInCycle(Cycle<V> cycle, V center) {
-        if (incidenceMap.containsKey(center)) {
+        if (rotationSystem.containsVertex(center)) {
             throw new InvalidGraphTransformException("Center vertex must be new.");
         }
         if (cycle.size() < 3) {
@@ -948,7 +2018,12 @@ public class PlaneGraph<V extends Vertex<V>>
             newInnerEdgeTails.add(e.leftTail());
             newOuterEdgeTails.put(v, e.rightTail());
         }
-        incidenceMap.put(center, newInnerEdgeTails);
+        journalRotation(center);
+        rotationSystem.addVertex(center, newInnerEdgeTails);
+        markStale(newInnerEdgeTails);
+        recordChange(center);
+        numberOfVertices++;
+        numberOfEdgeTails += newInnerEdgeTails.size();
         // add inwards pointing halfedges to cycle vertices
         for (EdgeTail<V> cycleEdge : cycle.edgeList()) {
             V v = cycleEdge.getSource();
@@ -995,7 +2070,8 @@ public class PlaneGraph<V extends Vertex<V>>
     }
 
     /**
-     * Remove the specified edge from the graph.
+     * Remove the specified edge from the graph. Its ID is handed out again by
+     * {@link #getUnusedEdgeID()}.
      *
      * @param edge
      *            the edge to remove
@@ -1003,16 +2079,43 @@ public class PlaneGraph<V extends Vertex<V>>
      *             if the end vertices of the edge are not in the graph
      */
     public void removeEdge(UndirectedEdge<V> edge) {
-        incidenceMap.get(edge.getLeft())
-                    .remove(edge.leftTail());
-        incidenceMap.get(edge.getRight())
-                    .remove(edge.rightTail());
+        if (!rotationSystem.containsVertex(edge.getLeft())
+                || !rotationSystem.containsVertex(edge.getRight())) {
+            throw new NoSuchElementException("No such edge: " + edge);
+        }
+        // both faces along the edge change
+        invalidateFace(edge.leftTail());
+        invalidateFace(edge.rightTail());
+        if (removeEdgeTail(edge.leftTail()) | removeEdgeTail(edge.rightTail())) {
+            releaseEdgeID(edge.getID());
+        }
+    }
+
+    /**
+     * Remove the specified edge tail from the list of incident edges of its
+     * source vertex, if it is present.
+     *
+     * @param e
+     *            the edge tail to remove
+     * @return true if the edge tail was present
+     */
+    private boolean removeEdgeTail(EdgeTail<V> e) {
+        if (!rotationSystem.containsTail(e)) {
+            return false;
+        }
+        journalRemoval(e);
+        rotationSystem.removeTail(e);
+        numberOfEdgeTails--;
+        recordChange(e.getSource());
+        return true;
     }
 
     /**
      * Remove the specified vertex from the graph.
      *
-     * This also removes all edges incident to the vertex.
+     * This also removes all edges incident to the vertex. The IDs of the
+     * vertex and the edges are handed out again by {@link #getUnusedVertexID()}
+     * and {@link #getUnusedEdgeID()}.
      *
      * @param v
      *            the vertex to remove
@@ -1023,7 +2126,11 @@ public class PlaneGraph<V extends Vertex<V>>
         for (UndirectedEdge<V> e : incidentEdges(v)) {
             removeEdge(e);
         }
-        incidenceMap.remove(v);
+        journalRotation(v);
+        rotationSystem.removeVertex(v);
+        numberOfVertices--;
+        recordChange(v);
+        freeVertexIDs = new FreeIDs(v.getID(), freeVertexIDs);
     }
 
     /**
@@ -1051,15 +2158,16 @@ public class PlaneGraph<V extends Vertex<V>>
      */
     private void unsafeAddHalfEdge(EdgeTail<V> newEdge, EdgeTail<V> refEdge,
             RotationDirection dir) {
-        RotationList<EdgeTail<V>> edgeList = incidenceMap.get(newEdge.getSource());
-        int targetIdx = edgeList.indexOf(refEdge);
-        if (targetIdx == -1) {
-            throw new NonIncidenceException();
-        }
-        if (dir == RotationDirection.CLOCKWISE) {
-            targetIdx = targetIdx + 1;
-        }
-        edgeList.add(targetIdx, newEdge);
+        rotationSystem.insertTail(newEdge, refEdge, dir);
+        journalInsertion(newEdge);
+        numberOfEdgeTails++;
+        recordChange(newEdge.getSource());
+        // Only the face that used to turn from the counterclockwise neighbor
+        // of the new edge tail to its clockwise neighbor changes.
+        EdgeTail<V> prev = rotationSystem.rotate(newEdge,
+                RotationDirection.COUNTERCLOCKWISE);
+        invalidateFace(prev.otherSide());
+        markStale(newEdge);
     }
 
 }
@@ -1,27 +1,126 @@
 package deltawye.lib;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.NoSuchElementException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.*;
 
 /**
  * A list data structure for representing rotation schemes.
  *
+ * <p>
+ * The elements are stored in array slots that are linked into a circular
+ * doubly linked list, so an element keeps its slot until it is removed.
+ * Lists with at least {@value #INDEX_THRESHOLD} elements also keep a position
+ * index that maps every element to its slot. Shorter lists (the vast majority
+ * of rotations) are scanned linearly, which is cheaper than building and
+ * querying a hash map. Hence {@link #contains(Object)},
+ * {@link #nextAfter(Object)}, {@link #prevBefore(Object)},
+ * {@link #addNextTo(Object, Object, RotationDirection)},
+ * {@link #remove(Object)} and the operations at either end take amortized
+ * constant time: inserting or removing an element touches no other slot and
+ * no other index entry.
+ *
+ * <p>
+ * Positional access ({@link #get(int)}, {@link #indexOf(Object)}) uses an
+ * array of the slots in list order that is built on demand and kept until
+ * the list is modified. Positional modifications in the middle of the list
+ * walk from the nearer end.
+ *
+ * <p>
+ * The position index requires distinct elements. If the list contains
+ * duplicates (e.g. the neighbors of a vertex with parallel edges), lookups
+ * fall back to linear scans.
+ *
  * @param <E>
  *            the type of elements stored in the list
  */
-public class RotationList<E> extends LinkedList<E> {
+public class RotationList<E> extends AbstractList<E>
+        implements RandomAccess, Serializable {
 
     /**
      * Serial Version ID.
      */
-    private static final long serialVersionUID = 885401109478230132L;
+    private static final long serialVersionUID = 2916042270738253712L;
+
+    /**
+     * Initial capacity of the slot arrays.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Least number of elements for which a position index is built.
+     */
+    static final int INDEX_THRESHOLD = 16;
+
+    /**
+     * Elements by slot, null for unused slots.
+     */
+    private Object[] elements;
+
+    /**
+     * Slot of the next element in list order (circularly), or of the next
+     * free slot for free slots.
+     */
+    private int[] next;
+
+    /**
+     * Slot of the previous element in list order (circularly).
+     */
+    private int[] prev;
+
+    /**
+     * Slot of the first element, or -1 if the list is empty.
+     */
+    private int first;
+
+    /**
+     * First slot of the free list, or -1 if no freed slot is available.
+     */
+    private int free;
+
+    /**
+     * Number of slots that have been handed out at least once.
+     */
+    private int used;
+
+    /**
+     * Number of elements.
+     */
+    private int size;
+
+    /**
+     * Mapping from elements to their slots, or null if the index is not
+     * available.
+     */
+    private transient Map<Object, Integer> positions;
+
+    /**
+     * Value of {@code modCount} at which rebuilding the position index failed
+     * due to duplicate elements, or -1.
+     */
+    private transient int duplicatesSeenAt;
+
+    /**
+     * Slots in list order, valid if {@code orderedAt == modCount}.
+     */
+    private transient int[] order;
+
+    /**
+     * Logical index of each slot, valid together with {@code order}.
+     */
+    private transient int[] ranks;
+
+    /**
+     * Value of {@code modCount} at which {@code order} was built, or -1.
+     */
+    private transient int orderedAt;
 
     /**
      * Create an empty RotationList.
      */
     public RotationList() {
-        super();
+        this(INITIAL_CAPACITY);
     }
 
     /**
@@ -31,7 +130,479 @@ public class RotationList<E> extends LinkedList<E> {
      *            a collection of elements
      */
     public RotationList(Collection<? extends E> c) {
-        super(c);
+        this(Math.max(INITIAL_CAPACITY, c.size()));
+        for (E e : c) {
+            addLast(e);
+        }
+    }
+
+    /**
+     * Create an empty RotationList with the specified capacity.
+     *
+     * @param capacity
+     *            initial number of slots
+     */
+    private RotationList(int capacity) {
+        elements = new Object[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        first = -1;
+        free = -1;
+        resetTransientState();
+    }
+
+    /**
+     * Reset the position index and the order array.
+     */
+    private void resetTransientState() {
+        positions = null;
+        duplicatesSeenAt = -1;
+        order = null;
+        ranks = null;
+        orderedAt = -1;
+    }
+
+    /**
+     * Restore the transient state after deserialization.
+     *
+     * @param in
+     *            the input stream
+     * @throws IOException
+     *             if an I/O error occurs
+     * @throws ClassNotFoundException
+     *             if the class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        resetTransientState();
+    }
+
+    /**
+     * Return the element stored in the specified slot.
+     *
+     * @param slot
+     *            slot
+     * @return element
+     */
+    @SuppressWarnings("unchecked")
+    private E elementAt(int slot) {
+        return (E) elements[slot];
+    }
+
+    /**
+     * Throw an exception if the index is out of range.
+     *
+     * @param index
+     *            index to be checked
+     * @param upper
+     *            exclusive upper bound
+     */
+    private void checkIndex(int index, int upper) {
+        if (index < 0 || index >= upper) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Return the position index, rebuilding it if necessary.
+     *
+     * @return position index, or null if the list is too short to be indexed
+     *         or contains duplicates
+     */
+    private Map<Object, Integer> positions() {
+        if (size < INDEX_THRESHOLD) {
+            return null;
+        }
+        if (positions == null && duplicatesSeenAt != modCount) {
+            Map<Object, Integer> index = new HashMap<>();
+            int s = first;
+            for (int i = 0; i < size; i++, s = next[s]) {
+                if (index.put(elements[s], s) != null) {
+                    duplicatesSeenAt = modCount;
+                    return null;
+                }
+            }
+            positions = index;
+        }
+        return positions;
+    }
+
+    /**
+     * Build the slot array in list order if it is not up to date.
+     */
+    private void ensureOrder() {
+        if (orderedAt == modCount) {
+            return;
+        }
+        if (order == null || order.length < elements.length) {
+            order = new int[elements.length];
+            ranks = new int[elements.length];
+        }
+        int s = first;
+        for (int i = 0; i < size; i++, s = next[s]) {
+            order[i] = s;
+            ranks[s] = i;
+        }
+        orderedAt = modCount;
+    }
+
+    /**
+     * Build the position index and the order array now instead of on the next
+     * lookup.
+     *
+     * <p>
+     * Until the list is modified again, lookups do not modify it, so they may
+     * be issued from several threads.
+     */
+    void buildPositions() {
+        positions();
+        ensureOrder();
+    }
+
+    /**
+     * Return the slot of the first occurrence of the specified element.
+     *
+     * @param o
+     *            element to look for
+     * @return slot, or -1 if the element is not in the list
+     */
+    private int find(Object o) {
+        Map<Object, Integer> index = positions();
+        if (index != null) {
+            Integer s = index.get(o);
+            return s == null ? -1 : s;
+        }
+        int s = first;
+        for (int i = 0; i < size; i++, s = next[s]) {
+            if (Objects.equals(o, elements[s])) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the slot of the specified logical index.
+     *
+     * @param index
+     *            valid logical index
+     * @return slot
+     */
+    private int slotAt(int index) {
+        if (orderedAt == modCount) {
+            return order[index];
+        }
+        int s = first;
+        if (index <= size / 2) {
+            for (int i = 0; i < index; i++) {
+                s = next[s];
+            }
+        } else {
+            for (int i = size; i > index; i--) {
+                s = prev[s];
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Store the specified element in a free slot. The slot is not linked into
+     * the list yet.
+     *
+     * @param element
+     *            the element to store
+     * @return the slot
+     */
+    private int allocate(E element) {
+        int s = free;
+        if (s != -1) {
+            free = next[s];
+        } else {
+            if (used == elements.length) {
+                int capacity = 2 * elements.length;
+                elements = Arrays.copyOf(elements, capacity);
+                next = Arrays.copyOf(next, capacity);
+                prev = Arrays.copyOf(prev, capacity);
+            }
+            s = used++;
+        }
+        elements[s] = element;
+        return s;
+    }
+
+    /**
+     * Link a newly allocated slot into the list before the specified slot.
+     *
+     * @param s
+     *            the new slot
+     * @param before
+     *            the slot to link it before, or -1 if the list is empty
+     */
+    private void link(int s, int before) {
+        if (before == -1) {
+            next[s] = s;
+            prev[s] = s;
+            first = s;
+        } else {
+            int p = prev[before];
+            next[p] = s;
+            prev[s] = p;
+            next[s] = before;
+            prev[before] = s;
+        }
+        size++;
+        modCount++;
+        if (positions != null && positions.put(elements[s], s) != null) {
+            positions = null;
+        }
+    }
+
+    /**
+     * Unlink the specified slot from the list and free it.
+     *
+     * @param s
+     *            the slot of an element
+     * @return the element that was stored in the slot
+     */
+    private E unlink(int s) {
+        E old = elementAt(s);
+        if (positions != null) {
+            positions.remove(old);
+        }
+        if (size == 1) {
+            first = -1;
+        } else {
+            next[prev[s]] = next[s];
+            prev[next[s]] = prev[s];
+            if (s == first) {
+                first = next[s];
+            }
+        }
+        elements[s] = null;
+        next[s] = free;
+        free = s;
+        size--;
+        modCount++;
+        if (size < INDEX_THRESHOLD) {
+            positions = null;
+        }
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size);
+        ensureOrder();
+        return elementAt(order[index]);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        checkIndex(index, size);
+        int s = slotAt(index);
+        E old = elementAt(s);
+        elements[s] = element;
+        if (positions != null) {
+            if (Objects.equals(positions.get(old), s)) {
+                positions.remove(old);
+            }
+            if (positions.put(element, s) != null) {
+                positions = null;
+            }
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkIndex(index, size + 1);
+        int before = index == size ? first : slotAt(index);
+        int s = allocate(element);
+        link(s, before);
+        if (index == 0) {
+            first = s;
+        }
+    }
+
+    /**
+     * Insert an element next to another element of the list.
+     *
+     * <p>
+     * With {@link RotationDirection#CLOCKWISE}, the new element is inserted
+     * directly after the reference element, otherwise directly before it.
+     *
+     * @param ref
+     *            the reference element
+     * @param element
+     *            the element to insert
+     * @param dir
+     *            the side of the reference element to insert at
+     * @return true if the element was inserted, false if the reference element
+     *         is not in the list
+     */
+    public boolean addNextTo(E ref, E element, RotationDirection dir) {
+        int r = find(ref);
+        if (r == -1) {
+            return false;
+        }
+        int s = allocate(element);
+        if (dir == RotationDirection.CLOCKWISE) {
+            link(s, next[r]);
+        } else {
+            link(s, r);
+            if (r == first) {
+                first = s;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index, size);
+        return unlink(slotAt(index));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int s = find(o);
+        if (s == -1) {
+            return false;
+        }
+        unlink(s);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, null);
+        first = -1;
+        free = -1;
+        used = 0;
+        size = 0;
+        modCount++;
+        positions = null;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (positions() != null) {
+            int s = find(o);
+            if (s == -1) {
+                return -1;
+            }
+            ensureOrder();
+            return ranks[s];
+        }
+        int s = first;
+        for (int i = 0; i < size; i++, s = next[s]) {
+            if (Objects.equals(o, elements[s])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (positions() != null) {
+            return indexOf(o);
+        }
+        int s = first;
+        for (int i = size - 1; i >= 0; i--) {
+            s = prev[s];
+            if (Objects.equals(o, elements[s])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return find(o) != -1;
+    }
+
+    /**
+     * Return the first element in the list.
+     *
+     * @return the first element
+     * @throws NoSuchElementException
+     *             if the list is empty
+     */
+    public E getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(first);
+    }
+
+    /**
+     * Return the last element in the list.
+     *
+     * @return the last element
+     * @throws NoSuchElementException
+     *             if the list is empty
+     */
+    public E getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(prev[first]);
+    }
+
+    /**
+     * Insert the specified element at the beginning of the list.
+     *
+     * @param e
+     *            the element to add
+     */
+    public void addFirst(E e) {
+        add(0, e);
+    }
+
+    /**
+     * Append the specified element to the end of the list.
+     *
+     * @param e
+     *            the element to add
+     */
+    public void addLast(E e) {
+        add(size, e);
+    }
+
+    /**
+     * Remove and return the first element in the list.
+     *
+     * @return the first element
+     * @throws NoSuchElementException
+     *             if the list is empty
+     */
+    public E removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return unlink(first);
+    }
+
+    /**
+     * Remove and return the last element in the list.
+     *
+     * @return the last element
+     * @throws NoSuchElementException
+     *             if the list is empty
+     */
+    public E removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return unlink(prev[first]);
     }
 
     /**
@@ -61,12 +632,21 @@ public class RotationList<E> extends LinkedList<E> {
      * @return the element at the specified distance
      */
     public E rotateBy(E elem, int steps) {
-        int idx = indexOf(elem);
-        if (idx == -1) {
+        int s = find(elem);
+        if (s == -1) {
             throw new NoSuchElementException();
         }
-        int idxNext = Math.floorMod(idx + steps, size());
-        return get(idxNext);
+        int forward = Math.floorMod(steps, size);
+        if (forward <= size / 2) {
+            for (int i = 0; i < forward; i++) {
+                s = next[s];
+            }
+        } else {
+            for (int i = size; i > forward; i--) {
+                s = prev[s];
+            }
+        }
+        return elementAt(s);
     }
 
     /**
@@ -0,0 +1,169 @@
+package deltawye.lib;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Storage backend for the rotation system of a plane graph.
+ *
+ * <p>
+ * A rotation system assigns to every vertex the list of its outgoing edge tails
+ * in clockwise order. This is all the information a {@link PlaneGraph} needs
+ * about its embedding; the graph delegates all queries and updates of the
+ * embedding to an instance of this class.
+ *
+ * <p>
+ * Implementations need not check the global consistency of the embedding. In
+ * particular, the two tails of an edge are added and removed independently.
+ *
+ * @param <V>
+ *            the type of vertices
+ */
+abstract class RotationSystem<V extends Vertex<V>> {
+
+    /**
+     * Return a read-only view of the set of vertices.
+     *
+     * @return the set of vertices
+     */
+    abstract Set<V> vertices();
+
+    /**
+     * Return whether the specified vertex is present.
+     *
+     * @param v
+     *            some vertex
+     * @return true if the vertex is present
+     */
+    abstract boolean containsVertex(V v);
+
+    /**
+     * Return whether the specified edge tail is present at its source vertex.
+     *
+     * @param tail
+     *            some edge tail
+     * @return true if the edge tail is present
+     */
+    abstract boolean containsTail(EdgeTail<V> tail);
+
+    /**
+     * Return the number of edge tails whose source is the specified vertex.
+     *
+     * @param v
+     *            some vertex
+     * @return the degree of the vertex
+     * @throws NoSuchElementException
+     *             if the vertex is not present
+     */
+    abstract int degree(V v);
+
+    /**
+     * Return a copy of the clockwise list of edge tails at the specified
+     * vertex.
+     *
+     * @param v
+     *            some vertex
+     * @return list of outgoing edge tails
+     * @throws NoSuchElementException
+     *             if the vertex is not present
+     */
+    abstract RotationList<EdgeTail<V>> rotation(V v);
+
+    /**
+     * Return the first edge tail in the rotation list of the specified vertex.
+     *
+     * @param v
+     *            some vertex
+     * @return the first outgoing edge tail
+     * @throws NoSuchElementException
+     *             if the vertex is not present or has no edge tails
+     */
+    abstract EdgeTail<V> firstTail(V v);
+
+    /**
+     * Return the edge tail that comes one step after {@code tail} in the
+     * specified direction around the source vertex of {@code tail}.
+     *
+     * @param tail
+     *            an edge tail
+     * @param dir
+     *            the direction of rotation
+     * @return the next edge tail at the same source vertex
+     * @throws NoSuchElementException
+     *             if the edge tail is not present
+     */
+    abstract EdgeTail<V> rotate(EdgeTail<V> tail, RotationDirection dir);
+
+    /**
+     * Add a new vertex with the specified clockwise list of outgoing edge
+     * tails.
+     *
+     * @param v
+     *            the new vertex
+     * @param tails
+     *            outgoing edge tails in clockwise order
+     */
+    abstract void addVertex(V v, List<EdgeTail<V>> tails);
+
+    /**
+     * Remove the specified vertex together with its list of outgoing edge
+     * tails.
+     *
+     * @param v
+     *            the vertex to remove
+     */
+    abstract void removeVertex(V v);
+
+    /**
+     * Insert the edge tail {@code newTail} at its source vertex, one step after
+     * {@code refTail} in direction {@code dir}.
+     *
+     * @param newTail
+     *            the edge tail to insert
+     * @param refTail
+     *            an edge tail already present at the same source vertex
+     * @param dir
+     *            the direction of insertion relative to {@code refTail}
+     * @throws NonIncidenceException
+     *             if {@code refTail} is not present at the source vertex of
+     *             {@code newTail}
+     */
+    abstract void insertTail(EdgeTail<V> newTail, EdgeTail<V> refTail,
+            RotationDirection dir);
+
+    /**
+     * Remove the specified edge tail from the list of its source vertex.
+     *
+     * <p>
+     * Nothing happens if the edge tail is not present.
+     *
+     * @param tail
+     *            the edge tail to remove
+     */
+    abstract void removeTail(EdgeTail<V> tail);
+
+    /**
+     * Build all lazily computed lookup structures now.
+     *
+     * <p>
+     * Until the next update, queries do not modify this rotation system, so
+     * they may be issued from several threads.
+     */
+    abstract void prepareConcurrentReads();
+
+    /**
+     * Return an independent copy of this rotation system.
+     *
+     * @return copy
+     */
+    abstract RotationSystem<V> copy();
+
+    /**
+     * Return the backend type of this rotation system.
+     *
+     * @return the backend
+     */
+    abstract PlaneGraph.Backend getBackend();
+
+}
@@ -46,7 +46,13 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
     /**
      * The current reduction state of the plane graph.
      */
-    private AtomicPlaneGraph graph;
+    private final AtomicPlaneGraph graph;
+
+    /**
+     * The medial graph of {@link #graph}, or null if it has not been
+     * constructed yet. It is updated along with every transformation.
+     */
+    private MedialGraph medialGraph;
 
     /**
      * The active strategy for selecting the boundary triangle.
@@ -54,9 +60,10 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
     private final LensTriangleSelectionStrategy strategy;
 
     /**
-     * The original graph.
+     * Journal mark of the original graph, which {@link #reset()} rolls back
+     * to.
      */
-    private final AtomicPlaneGraph originalGraph;
+    private final PlaneGraph.Mark initialState;
 
     /**
      * Size of the original graph. Used for measuring progress.
@@ -94,7 +101,7 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
             LensTriangleSelectionStrategy strategy) {
         this.graph = new AtomicPlaneGraph(graph);
         this.strategy = strategy;
-        originalGraph = graph;
+        initialState = this.graph.mark();
         originalSize = graph.size();
         random = new Random();
     }
@@ -134,30 +141,42 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
                     "K4 is not reducible using this algorithm.");
         }
 
-        // Construct medial graph
-        MedialGraph m = MedialGraph.fromAtomicPlaneGraph(graph);
+        // Construct medial graph, unless it is known from the previous step
+        if (medialGraph == null) {
+            medialGraph = MedialGraph.fromAtomicPlaneGraph(graph);
+        }
+        MedialGraph m = medialGraph;
 
         // Find minimal lenses
-        TreeSet<Lens> lenses = m.lenses();
-        int numberOfFacesInMinimalLens = lenses.first()
-                                               .numberOfInnerFaces();
-        Set<Lens> minimalLenses = lenses.stream()
-                                        .filter(l -> l.numberOfInnerFaces() == numberOfFacesInMinimalLens)
-                                        .collect(Collectors.toSet());
+        Set<Lens> minimalLenses = m.minimalLenses();
 
         // Select a boundary triangle in a minimal lens
         Circuit<MedialVertex> boundaryTriFace = selectBoundaryTriangle(minimalLenses);
 
         // Perform corresponding transformation in original graph
-        if (m.isUnmedialVertex(boundaryTriFace)) {
-            AtomicVertex v3 = m.toUnmedialVertex(boundaryTriFace);
-            graph.reduceOmega(v3);
-            transformation = OMEGA + " at " + v3;
-        } else {
-            Circuit<AtomicVertex> f3 = graph.getFace(m.toUnmedialFace(boundaryTriFace));
-            graph.reduceEta(f3);
-            transformation = ETA + " at " + f3;
+        Set<AtomicVertex> changed;
+        graph.startRecordingChanges();
+        try {
+            if (m.isUnmedialVertex(boundaryTriFace)) {
+                AtomicVertex v3 = m.toUnmedialVertex(boundaryTriFace);
+                graph.reduceOmega(v3);
+                transformation = OMEGA + " at " + v3;
+            } else {
+                Circuit<AtomicVertex> f3 = graph.getFace(
+                        m.toUnmedialFace(boundaryTriFace));
+                graph.reduceEta(f3);
+                transformation = ETA + " at " + f3;
+            }
+        } catch (RuntimeException e) {
+            // the medial graph may no longer match the graph
+            medialGraph = null;
+            throw e;
+        } finally {
+            changed = graph.stopRecordingChanges();
         }
+
+        // Patch the medial graph around the changed vertices
+        m.update(graph, changed);
         return transformation;
     }
 
@@ -172,27 +191,26 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
         Circuit<MedialVertex> nextBoundaryTriangle;
         if (strategy == LensTriangleSelectionStrategy.RANDOM) {
             List<Circuit<MedialVertex>> allBoundaryTrianglesList = new ArrayList<>(
-                    getAllBoundaryTriangles(lenses));
+                    countContainingLenses(lenses).keySet());
             int idx = random.nextInt(allBoundaryTrianglesList.size());
             nextBoundaryTriangle = allBoundaryTrianglesList.get(idx);
         } else if (strategy == LensTriangleSelectionStrategy.MAXLENSES
                 || strategy == LensTriangleSelectionStrategy.MINLENSES) {
-            // build map keyed by the number of containing lenses
-            Map<Long, List<Circuit<MedialVertex>>> triangleMap;
-            Stream<Circuit<MedialVertex>> triangleStream = new ArrayList<>(
-                    getAllBoundaryTriangles(lenses)).stream();
-            triangleMap = triangleStream.collect(
-                    Collectors.groupingBy(f -> lenses.stream()
-                                                     .filter(l -> l.boundaryFaces()
-                                                                   .contains(f))
-                                                     .count()));
-            long key;
-            if (strategy == LensTriangleSelectionStrategy.MAXLENSES) {
-                key = Collections.max(triangleMap.keySet());
-            } else { // MINLENSES
-                key = Collections.min(triangleMap.keySet());
+            // collect the triangles with the extreme number of containing lenses
+            int sign = strategy == LensTriangleSelectionStrategy.MAXLENSES ? 1 : -1;
+            int bestKey = Integer.MIN_VALUE;
+            List<Circuit<MedialVertex>> relevantTriangles = new ArrayList<>();
+            for (Map.Entry<Circuit<MedialVertex>, Integer> entry : countContainingLenses(
+                    lenses).entrySet()) {
+                int key = sign * entry.getValue();
+                if (key > bestKey) {
+                    bestKey = key;
+                    relevantTriangles.clear();
+                }
+                if (key == bestKey) {
+                    relevantTriangles.add(entry.getKey());
+                }
             }
-            List<Circuit<MedialVertex>> relevantTriangles = triangleMap.get(key);
             // choose a random triangle among the fitting ones
             int idx = random.nextInt(relevantTriangles.size());
             nextBoundaryTriangle = relevantTriangles.get(idx);
@@ -231,22 +249,28 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
     }
 
     /**
-     * Return the set of all boundary triangles of the specified lenses.
+     * Return the boundary triangles of the specified lenses, each mapped to
+     * the number of lenses that contain it.
+     *
+     * <p>
+     * The index is filled in a single pass over the boundary faces of the
+     * lenses, so its cost is linear in the total number of boundary faces.
      *
      * @param lenses
      *            a set of lenses
-     * @return the set of all boundary triangles
+     * @return mapping from boundary triangles to their number of containing
+     *         lenses
      */
-    private Set<Circuit<MedialVertex>> getAllBoundaryTriangles(Set<Lens> lenses) {
-        Set<Circuit<MedialVertex>> allBoundaryTriangles = new HashSet<>();
+    static Map<Circuit<MedialVertex>, Integer> countContainingLenses(Set<Lens> lenses) {
+        Map<Circuit<MedialVertex>, Integer> triangleCounts = new HashMap<>();
         for (Lens l : lenses) {
             for (Circuit<MedialVertex> f : l.boundaryFaces()) {
                 if (f.isTriangle()) {
-                    allBoundaryTriangles.add(f);
+                    triangleCounts.merge(f, 1, Integer::sum);
                 }
             }
         }
-        return allBoundaryTriangles;
+        return triangleCounts;
     }
 
     /**
@@ -286,7 +310,8 @@ public class SteinitzGruenbaum implements GraphTransformationAlgorithm {
 
     @Override
     public void reset() {
-        graph = new AtomicPlaneGraph(originalGraph);
+        graph.rollback(initialState);
+        medialGraph = null;
     }
 
     @Override
@@ -36,15 +36,33 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
         LONG
     }
 
+    /**
+     * Engine for finding the applicable transformations.
+     */
+    public enum Engine {
+        /**
+         * Rescan all vertices and faces in every step (default).
+         */
+        RESCAN,
+
+        /**
+         * Keep the applicable transformations in buckets by reduction value and
+         * temperature, and after each step recheck only the vertices and faces
+         * touched by the performed transformation.
+         */
+        WORKLIST
+    }
+
     /**
      * The current reduction state of the plane graph.
      */
-    private AtomicPlaneGraph graph;
+    private final AtomicPlaneGraph graph;
 
     /**
-     * The original graph.
+     * Journal mark of the original graph, which {@link #reset()} rolls back
+     * to.
      */
-    private final AtomicPlaneGraph originalGraph;
+    private final PlaneGraph.Mark initialState;
 
     /**
      * Size of the original graph. Used for measuring progress.
@@ -52,20 +70,49 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
     private final int originalSize;
 
     /**
-     * Hotness of vertices.
+     * Hotness of vertices, by vertex ID. Absent vertices have hotness 0.
      */
-    private Map<AtomicVertex, Integer> vertexHotness;
+    private final IntTable vertexHotness;
 
     /**
-     * Hotness of edges.
+     * Hotness of edges, by edge ID. Absent edges have hotness 0.
      */
-    private Map<UndirectedEdge<AtomicVertex>, Integer> edgeHotness;
+    private final IntTable edgeHotness;
 
     /**
      * The active strategy for choosing among edge-reducing transformations.
      */
     private final Strategy strategy;
 
+    /**
+     * The active engine for finding the applicable transformations.
+     */
+    private final Engine engine;
+
+    /**
+     * Worklist of applicable omega transformations, by vertex. Only used by
+     * {@link Engine#WORKLIST}.
+     */
+    private Map<AtomicVertex, Transformation> omegaCandidates;
+
+    /**
+     * Worklist of applicable eta transformations, by the first edge tail of
+     * the face. Only used by {@link Engine#WORKLIST}.
+     */
+    private Map<EdgeTail<AtomicVertex>, Transformation> etaCandidates;
+
+    /**
+     * Worklist transformations with positive reduction value, bucketed by
+     * reduction value. Only used by {@link Engine#WORKLIST}.
+     */
+    private BucketQueue<Transformation> positiveCandidates;
+
+    /**
+     * Worklist transformations with zero reduction value, bucketed by
+     * temperature. Only used by {@link Engine#WORKLIST}.
+     */
+    private BucketQueue<Transformation> neutralCandidates;
+
     /**
      * Random number generator.
      */
@@ -88,15 +135,37 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
      *            the graph to be reduced
      * @param strategy
      *            the strategy for choosing among edge-reducing transformations
+     * @param engine
+     *            the engine for finding the applicable transformations
      */
-    public TemperatureReduction(AtomicPlaneGraph graph, Strategy strategy) {
+    public TemperatureReduction(AtomicPlaneGraph graph, Strategy strategy, Engine engine) {
         this.strategy = strategy;
+        this.engine = engine;
         this.graph = new AtomicPlaneGraph(graph);
-        originalGraph = graph;
+        initialState = this.graph.mark();
         originalSize = graph.size();
-        vertexHotness = new HashMap<>();
-        edgeHotness = new HashMap<>();
+        // the graph hands out the IDs of removed elements again, so the IDs
+        // of a densely numbered input stay below a multiple of its size;
+        // larger IDs are kept out of the hotness arrays, so that sparse IDs
+        // do not blow them up
+        int denseLimit = 2 * (graph.order() + graph.size()) + DenseTable.INITIAL_CAPACITY;
+        vertexHotness = new IntTable(() -> denseLimit);
+        edgeHotness = new IntTable(() -> denseLimit);
         random = new Random();
+        initWorklist();
+    }
+
+    /**
+     * Initialize reduction algorithm on the specified plane graph with the
+     * default engine ({@link Engine#RESCAN}).
+     *
+     * @param graph
+     *            the graph to be reduced
+     * @param strategy
+     *            the strategy for choosing among edge-reducing transformations
+     */
+    public TemperatureReduction(AtomicPlaneGraph graph, Strategy strategy) {
+        this(graph, strategy, Engine.RESCAN);
     }
 
     /**
@@ -117,37 +186,35 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
 
     @Override
     public String nextStep() {
+        if (engine == Engine.WORKLIST) {
+            return applyAndUpdateWorklist(selectFromWorklist());
+        }
+
         String transformation;
         List<Transformation> bestTransformations;
         // find possible transformations
         List<Transformation> positiveTransformations = new ArrayList<>();
         List<Transformation> neutralTransformations = new ArrayList<>();
         for (AtomicVertex v : graph.vertices()) {
-            if (graph.canReduceWyeDelta(v)) {
-                int reductionValue = (int) graph.incidentEdgeTails(v)
-                                                .stream()
-                                                .filter(e -> graph.isEmptyTriangle(e))
-                                                .count();
-                Transformation omega = new OmegaTransformation(v, reductionValue);
-                if (reductionValue > 0) {
-                    positiveTransformations.add(omega);
-                } else {
-                    neutralTransformations.add(omega);
-                }
+            Transformation omega = findOmegaTransformation(v);
+            if (omega == null) {
+                continue;
+            }
+            if (omega.getReductionValue() > 0) {
+                positiveTransformations.add(omega);
+            } else {
+                neutralTransformations.add(omega);
             }
         }
         for (Circuit<AtomicVertex> f : graph.faces()) {
-            if (graph.canReduceDeltaWye(f)) {
-                int reductionValue = (int) f.vertices()
-                                            .stream()
-                                            .filter(v -> graph.isWye(v))
-                                            .count();
-                Transformation eta = new EtaTransformation(f, reductionValue);
-                if (reductionValue > 0) {
-                    positiveTransformations.add(eta);
-                } else {
-                    neutralTransformations.add(eta);
-                }
+            Transformation eta = findEtaTransformation(f);
+            if (eta == null) {
+                continue;
+            }
+            if (eta.getReductionValue() > 0) {
+                positiveTransformations.add(eta);
+            } else {
+                neutralTransformations.add(eta);
             }
         }
 
@@ -189,6 +256,224 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
         return transformation;
     }
 
+    /**
+     * Set the hotness of the specified vertex.
+     *
+     * @param v
+     *            a vertex
+     * @param temperature
+     *            the new hotness
+     */
+    private void setHotness(AtomicVertex v, int temperature) {
+        vertexHotness.set(v.getID(), temperature);
+    }
+
+    /**
+     * Set the hotness of the specified edge.
+     *
+     * @param e
+     *            an edge
+     * @param temperature
+     *            the new hotness
+     */
+    private void setHotness(UndirectedEdge<AtomicVertex> e, int temperature) {
+        edgeHotness.set(e.getID(), temperature);
+    }
+
+    /**
+     * Return the omega transformation at the specified vertex, if applicable.
+     *
+     * @param v
+     *            vertex under consideration
+     * @return omega transformation, or null if not applicable
+     */
+    private Transformation findOmegaTransformation(AtomicVertex v) {
+        if (!graph.canReduceWyeDelta(v)) {
+            return null;
+        }
+        int reductionValue = 0;
+        for (EdgeTail<AtomicVertex> e : graph.incidentEdgeTails(v)) {
+            if (graph.isEmptyTriangle(e)) {
+                reductionValue++;
+            }
+        }
+        return new OmegaTransformation(v, reductionValue);
+    }
+
+    /**
+     * Return the eta transformation at the specified face, if applicable.
+     *
+     * @param f
+     *            face under consideration
+     * @return eta transformation, or null if not applicable
+     */
+    private Transformation findEtaTransformation(Circuit<AtomicVertex> f) {
+        if (!graph.canReduceDeltaWye(f)) {
+            return null;
+        }
+        int reductionValue = 0;
+        for (AtomicVertex v : f.vertexList()) {
+            if (graph.isWye(v)) {
+                reductionValue++;
+            }
+        }
+        return new EtaTransformation(f, reductionValue);
+    }
+
+    /**
+     * Fill the worklist with all applicable transformations, if the worklist
+     * engine is active.
+     */
+    private void initWorklist() {
+        if (engine != Engine.WORKLIST) {
+            return;
+        }
+        omegaCandidates = new HashMap<>();
+        etaCandidates = new HashMap<>();
+        positiveCandidates = new BucketQueue<>();
+        neutralCandidates = new BucketQueue<>();
+        for (AtomicVertex v : graph.vertices()) {
+            updateOmegaCandidate(v);
+        }
+        for (Circuit<AtomicVertex> f : graph.faces()) {
+            if (f.length() > 0) {
+                updateEtaCandidate(f.edgeList()
+                                    .getFirst());
+            }
+        }
+    }
+
+    /**
+     * Select the next transformation from the worklist based on the active
+     * strategy.
+     *
+     * @return next transformation
+     * @throws InvalidGraphTransformException
+     *             if no transformation is applicable
+     */
+    private Transformation selectFromWorklist() {
+        List<Transformation> bestTransformations;
+        if (!positiveCandidates.isEmpty()) {
+            if (strategy == Strategy.RANDOM) {
+                return positiveCandidates.get(random.nextInt(positiveCandidates.size()));
+            } else if (strategy == Strategy.SHORT) {
+                bestTransformations = positiveCandidates.bucket(positiveCandidates.maxKey());
+            } else { // LONG
+                bestTransformations = positiveCandidates.bucket(positiveCandidates.minKey());
+            }
+        } else if (!neutralCandidates.isEmpty()) {
+            bestTransformations = neutralCandidates.bucket(neutralCandidates.minKey());
+        } else {
+            throw new InvalidGraphTransformException("No rule applicable!");
+        }
+        // choose a random transformation among the best ones
+        return bestTransformations.get(random.nextInt(bestTransformations.size()));
+    }
+
+    /**
+     * Recheck the specified vertex and update the worklist.
+     *
+     * @param v
+     *            vertex under consideration
+     */
+    private void updateOmegaCandidate(AtomicVertex v) {
+        Transformation t = findOmegaTransformation(v);
+        Transformation old = t == null ? omegaCandidates.remove(v)
+                : omegaCandidates.put(v, t);
+        updateBuckets(old, t);
+    }
+
+    /**
+     * Recheck the face of the specified edge tail and update the worklist.
+     *
+     * @param e
+     *            edge tail (face) under consideration
+     */
+    private void updateEtaCandidate(EdgeTail<AtomicVertex> e) {
+        Circuit<AtomicVertex> face = graph.getFace(e);
+        EdgeTail<AtomicVertex> first = face.edgeList()
+                                           .getFirst();
+        Transformation t = findEtaTransformation(face);
+        Transformation old = t == null ? etaCandidates.remove(first)
+                : etaCandidates.put(first, t);
+        updateBuckets(old, t);
+    }
+
+    /**
+     * Replace a transformation in the buckets of the worklist.
+     *
+     * <p>
+     * Positive transformations are bucketed by reduction value, neutral ones
+     * by temperature. The temperature of a transformation does not change
+     * while it is applicable, since only new vertices and edges are heated.
+     *
+     * @param oldCandidate
+     *            the transformation to remove, or null
+     * @param newCandidate
+     *            the transformation to add, or null
+     */
+    private void updateBuckets(Transformation oldCandidate, Transformation newCandidate) {
+        if (oldCandidate != null) {
+            positiveCandidates.remove(oldCandidate);
+            neutralCandidates.remove(oldCandidate);
+        }
+        if (newCandidate != null) {
+            if (newCandidate.getReductionValue() > 0) {
+                positiveCandidates.add(newCandidate, newCandidate.getReductionValue());
+            } else {
+                neutralCandidates.add(newCandidate, newCandidate.getTemperature());
+            }
+        }
+    }
+
+    /**
+     * Perform the specified transformation and update the worklist.
+     *
+     * <p>
+     * Only the rotations of site vertices (see
+     * {@link Transformation#getSiteVertices()}) and of a new wye vertex change,
+     * and the new wye vertex is adjacent to the surviving site vertices. Thus,
+     * only the faces around the surviving site vertices and the vertices in
+     * their closed neighborhood have to be checked again.
+     *
+     * @param t
+     *            the transformation to perform
+     * @return description of the transformation
+     */
+    private String applyAndUpdateWorklist(Transformation t) {
+        Set<AtomicVertex> site = t.getSiteVertices();
+        for (AtomicVertex v : site) {
+            updateBuckets(omegaCandidates.remove(v), null);
+            for (EdgeTail<AtomicVertex> e : graph.incidentEdgeTails(v)) {
+                updateBuckets(etaCandidates.remove(graph.getFace(e)
+                                                        .edgeList()
+                                                        .getFirst()),
+                        null);
+            }
+        }
+        String description = t.apply();
+        Set<AtomicVertex> touched = new HashSet<>();
+        for (AtomicVertex v : site) {
+            if (graph.vertices()
+                     .contains(v)) {
+                touched.add(v);
+                touched.addAll(graph.neighbors(v));
+            }
+        }
+        for (AtomicVertex v : touched) {
+            updateOmegaCandidate(v);
+        }
+        for (AtomicVertex v : site) {
+            if (graph.vertices()
+                     .contains(v)) {
+                for (EdgeTail<AtomicVertex> e : graph.incidentEdgeTails(v)) {
+                    updateEtaCandidate(e);
+                }
+            }
+        }
+        return description;
+    }
+
     @Override
     public int getProgress() {
         int targetSize = 6; // target is K4
@@ -221,14 +506,15 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
         return String.join(System.getProperty("line.separator"),
                 "Randomized Wye-Delta-Wye algorithm,", "running on graph with "
                         + graph.order() + " vertices and " + graph.size() + " edges.",
-                "Selection Strategy: " + strategy + ".");
+                "Selection Strategy: " + strategy + ".", "Engine: " + engine + ".");
     }
 
     @Override
     public void reset() {
-        graph = new AtomicPlaneGraph(originalGraph);
-        vertexHotness = new HashMap<>();
-        edgeHotness = new HashMap<>();
+        graph.rollback(initialState);
+        vertexHotness.clear();
+        edgeHotness.clear();
+        initWorklist();
     }
 
     @Override
@@ -301,6 +587,14 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
          */
         public abstract int getTemperature();
 
+        /**
+         * Return the vertices whose rotation may change by this transformation,
+         * not counting a new wye vertex.
+         *
+         * @return set of site vertices
+         */
+        public abstract Set<AtomicVertex> getSiteVertices();
+
         /**
          * Perform this transformation.
          *
@@ -334,17 +628,36 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
 
         @Override
         public String apply() {
-            Set<UndirectedEdge<AtomicVertex>> newEdges = graph.reduceOmega(vertex);
             int temperature = getTemperature();
+            RotationList<UndirectedEdge<AtomicVertex>> oldEdges = graph.incidentEdges(vertex);
+            Set<UndirectedEdge<AtomicVertex>> newEdges = graph.reduceOmega(vertex);
+            // the wye vertex and its edges are gone
+            setHotness(vertex, 0);
+            for (UndirectedEdge<AtomicVertex> edge : oldEdges) {
+                setHotness(edge, 0);
+            }
             for (UndirectedEdge<AtomicVertex> edge : newEdges) {
-                edgeHotness.put(edge, temperature + 1);
+                setHotness(edge, temperature + 1);
             }
             return OMEGA + " at " + vertex;
         }
 
         @Override
         public int getTemperature() {
-            return vertexHotness.getOrDefault(vertex, 0);
+            return vertexHotness.get(vertex.getID());
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>
+         * These are the wye vertex and its neighbors.
+         */
+        @Override
+        public Set<AtomicVertex> getSiteVertices() {
+            Set<AtomicVertex> site = new HashSet<>(graph.neighbors(vertex));
+            site.add(vertex);
+            return site;
         }
     }
 
@@ -373,9 +686,34 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
 
         @Override
         public String apply() {
-            AtomicVertex wye = graph.reduceEta(delta);
             int temperature = getTemperature();
-            vertexHotness.put(wye, temperature + 1);
+            // The delta edges are removed, and a series reduction removes a
+            // delta vertex together with its edges.
+            List<AtomicVertex> deltaVertices = delta.vertexList();
+            Set<UndirectedEdge<AtomicVertex>> oldEdges = new HashSet<>();
+            for (AtomicVertex v : deltaVertices) {
+                oldEdges.addAll(graph.incidentEdges(v));
+            }
+            Set<UndirectedEdge<AtomicVertex>> deltaEdges = delta.edgesUndirected();
+            AtomicVertex wye = graph.reduceEta(delta);
+            for (AtomicVertex v : deltaVertices) {
+                if (!graph.vertices()
+                          .contains(v)) {
+                    setHotness(v, 0);
+                }
+            }
+            for (UndirectedEdge<AtomicVertex> edge : oldEdges) {
+                if (deltaEdges.contains(edge) || !graph.vertices()
+                                                       .containsAll(edge.vertices())) {
+                    setHotness(edge, 0);
+                }
+            }
+            // the edges at the wye vertex are new, but may reuse the IDs of
+            // removed edges
+            for (UndirectedEdge<AtomicVertex> edge : graph.incidentEdges(wye)) {
+                setHotness(edge, 0);
+            }
+            setHotness(wye, temperature + 1);
             return ETA + " at " + delta;
         }
 
@@ -383,13 +721,30 @@ public class TemperatureReduction implements GraphTransformationAlgorithm {
         public int getTemperature() {
             int temperature = 0;
             for (UndirectedEdge<AtomicVertex> edge : delta.edgesUndirected()) {
-                int edgeTemperature = edgeHotness.getOrDefault(edge, 0);
+                int edgeTemperature = edgeHotness.get(edge.getID());
                 if (edgeTemperature > temperature) {
                     temperature = edgeTemperature;
                 }
             }
             return temperature;
         }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>
+         * These are the vertices of the delta face and their neighbors, since
+         * a series reduction at a delta vertex reconnects its other neighbor.
+         */
+        @Override
+        public Set<AtomicVertex> getSiteVertices() {
+            Set<AtomicVertex> site = new HashSet<>();
+            for (AtomicVertex v : delta.vertexList()) {
+                site.add(v);
+                site.addAll(graph.neighbors(v));
+            }
+            return site;
+        }
     }
 
 }
@@ -44,6 +44,16 @@ public final class UndirectedEdge<V extends Vertex<V>>
      */
     private final V right;
 
+    /**
+     * The left tail of the edge, shared by all callers.
+     */
+    private final EdgeTail<V> leftTail;
+
+    /**
+     * The right tail of the edge, shared by all callers.
+     */
+    private final EdgeTail<V> rightTail;
+
     /**
      * Create an undirected edge between two vertices.
      *
@@ -65,6 +75,8 @@ public final class UndirectedEdge<V extends Vertex<V>>
         this.id = id;
         this.left = left;
         this.right = right;
+        leftTail = new EdgeTail<>(this, EdgeTail.Side.LEFT);
+        rightTail = new EdgeTail<>(this, EdgeTail.Side.RIGHT);
     }
 
     /**
@@ -94,6 +106,8 @@ public final class UndirectedEdge<V extends Vertex<V>>
         if (left == null || right == null) {
             throw new IllegalArgumentException("Vertices must not be null.");
         }
+        leftTail = new EdgeTail<>(this, EdgeTail.Side.LEFT);
+        rightTail = new EdgeTail<>(this, EdgeTail.Side.RIGHT);
     }
 
     @Override
@@ -223,19 +237,36 @@ public final class UndirectedEdge<V extends Vertex<V>>
     /**
      * Return the left tail of this edge.
      *
+     * <p>
+     * Every call returns the same instance.
+     *
      * @return left tail
      */
     public EdgeTail<V> leftTail() {
-        return new EdgeTail<>(this, EdgeTail.Side.LEFT);
+        return leftTail;
     }
 
     /**
      * Return the right tail of this edge.
      *
+     * <p>
+     * Every call returns the same instance.
+     *
      * @return right tail
      */
     public EdgeTail<V> rightTail() {
-        return new EdgeTail<>(this, EdgeTail.Side.RIGHT);
+        return rightTail;
+    }
+
+    /**
+     * Return the tail of this edge at the specified side.
+     *
+     * @param side
+     *            the side of the tail
+     * @return the tail at this side
+     */
+    public EdgeTail<V> tail(EdgeTail.Side side) {
+        return side == EdgeTail.Side.LEFT ? leftTail : rightTail;
     }
 
     @Override
@@ -0,0 +1,13 @@
+package deltawye.app;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@SuppressWarnings("javadoc")
+@RunWith(Suite.class)
+@SuiteClasses({ CLITest.class })
+
+public class AllTests {
+
+}
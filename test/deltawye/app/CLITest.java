@@ -0,0 +1,55 @@
+package deltawye.app;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import deltawye.lib.*;
+
+@SuppressWarnings("javadoc")
+public class CLITest {
+
+    /**
+     * Run a batch and return its output from the results on, which does not
+     * depend on the order in which the runs complete.
+     */
+    private static String batchResults(Supplier<GraphTransformationAlgorithm> algorithms,
+            int count, int threads) throws UnsupportedEncodingException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(buffer, true, "UTF-8"));
+        try {
+            CLI.batchRun(algorithms, count, threads);
+        } finally {
+            System.setOut(out);
+        }
+        String output = buffer.toString("UTF-8");
+        String[] lines = output.split("\\R");
+        assertEquals(count, Arrays.stream(lines)
+                                  .filter(line -> line.startsWith("Run "))
+                                  .count());
+        return output.substring(output.indexOf("RESULTS:"));
+    }
+
+    @Test
+    public void testConcurrentBatchMatchesSequentialBatch() throws Exception {
+        AtomicPlaneGraph graph = new AtomicPlaneGraph(
+                AtomicPlaneGraph.readAdjacencyList(GraphData.ICOSAHEDRON));
+        // deterministic strategies, so every run finds the same sequence
+        for (FeoProvan.TransformSelectionStrategy strategy : Arrays.asList(
+                FeoProvan.TransformSelectionStrategy.MINLABEL,
+                FeoProvan.TransformSelectionStrategy.MAXDEGREE)) {
+            Supplier<GraphTransformationAlgorithm> algorithms = () -> new FeoProvan(graph,
+                    FeoProvan.StartVertexStrategy.MINIMUM, strategy);
+            String sequential = batchResults(algorithms, 7, 1);
+            assertEquals(sequential, batchResults(algorithms, 7, 2));
+        }
+    }
+
+}
@@ -6,8 +6,13 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @SuppressWarnings("javadoc")
 @RunWith(Suite.class)
-@SuiteClasses({ AtomicPlaneGraphTest.class, AtomicVertexTest.class, CircuitTest.class,
-        EdgeTailTest.class, MedialGraphTest.class, PlaneGraphTest.class,
+@SuiteClasses({ AtomicPlaneGraphTest.class, AtomicVertexTest.class, BucketQueueTest.class,
+        CircuitTest.class, EdgeLabelingTest.class, EdgeTailTest.class,
+        FeoProvanPortfolioTest.class, FeoProvanTest.class, IndexedHeapTest.class,
+        IntTableTest.class, InternTableTest.class, MedialGraphTest.class,
+        PersistentIntMapTest.class, PersistentRotationSystemTest.class,
+        PlaneGraphTest.class, RotationListTest.class, RotationSystemTest.class,
+        SteinitzGruenbaumTest.class, TemperatureReductionTest.class,
         UndirectedEdgeTest.class, WalkTest.class })
 
 public class AllTests {
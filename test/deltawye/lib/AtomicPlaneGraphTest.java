@@ -2,6 +2,7 @@ package deltawye.lib;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -30,6 +31,48 @@ public class AtomicPlaneGraphTest {
                           .count());
     }
 
+    @Test
+    public void testCanonicalElements() {
+        for (AtomicPlaneGraph g : new AtomicPlaneGraph[] {
+                AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE),
+                AtomicPlaneGraph.readIncidenceList(GraphData.K4_INCIDENCE) }) {
+            for (AtomicVertex v : g.vertices()) {
+                for (EdgeTail<AtomicVertex> t : g.incidentEdgeTails(v)) {
+                    assertSame(v, t.getSource());
+                    assertTrue(g.incidentEdgeTails(t.getTarget())
+                                .stream()
+                                .anyMatch(u -> u == t.otherSide()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHugeVertexID() {
+        // cylinder-3x2 with vertex 6 renamed
+        int huge = 2000000000;
+        int[][] cylinder = { { 1, 2, 4, 3 }, { 2, 3, 5, 1 }, { 3, 1, huge, 2 },
+                { 4, 5, huge, 1 }, { 5, huge, 4, 2 }, { huge, 4, 5, 3 } };
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(cylinder);
+        assertEquals(6, g.order());
+        assertEquals(9, g.size());
+        assertTrue(g.vertices()
+                    .contains(new AtomicVertex(huge)));
+        assertFalse(new FeoProvan(g).run(false)
+                                    .isEmpty());
+        assertFalse(new SteinitzGruenbaum(g).run(false)
+                                            .isEmpty());
+        for (TemperatureReduction.Engine engine : TemperatureReduction.Engine.values()) {
+            TemperatureReduction tr = new TemperatureReduction(g,
+                    TemperatureReduction.Strategy.SHORT, engine);
+            assertFalse(tr.run(false)
+                          .isEmpty());
+            tr.reset();
+            assertFalse(tr.run(false)
+                          .isEmpty());
+        }
+    }
+
     @Test
     public void testLoopGraph() {
         AtomicPlaneGraph loopGraph = AtomicPlaneGraph.readIncidenceList(
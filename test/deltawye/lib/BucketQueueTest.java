@@ -0,0 +1,65 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class BucketQueueTest {
+
+    @Test
+    public void testBuckets() {
+        BucketQueue<String> queue = new BucketQueue<>();
+        queue.add("a", 2);
+        queue.add("b", 0);
+        queue.add("c", 2);
+        queue.add("d", 5);
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.minKey());
+        assertEquals(5, queue.maxKey());
+        assertEquals(new HashSet<>(Arrays.asList("a", "c")),
+                new HashSet<>(queue.bucket(2)));
+        assertTrue(queue.bucket(3)
+                        .isEmpty());
+        assertTrue(queue.remove("b"));
+        assertFalse(queue.remove("b"));
+        assertEquals(2, queue.minKey());
+        assertTrue(queue.remove("a"));
+        assertEquals(Arrays.asList("c"), queue.bucket(2));
+        assertTrue(queue.remove("d"));
+        assertEquals(2, queue.maxKey());
+        assertTrue(queue.remove("c"));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testGetCoversAllElements() {
+        BucketQueue<Integer> queue = new BucketQueue<>();
+        for (int i = 0; i < 20; i++) {
+            queue.add(i, i % 3);
+        }
+        queue.remove(7);
+        queue.remove(12);
+        Set<Integer> elements = new HashSet<>();
+        for (int i = 0; i < queue.size(); i++) {
+            elements.add(queue.get(i));
+        }
+        assertEquals(18, elements.size());
+        assertFalse(elements.contains(7));
+        assertFalse(elements.contains(12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddTwice() {
+        BucketQueue<String> queue = new BucketQueue<>();
+        queue.add("a", 1);
+        queue.add("a", 2);
+    }
+
+}
@@ -0,0 +1,57 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class EdgeLabelingTest {
+
+    private static UndirectedEdge<AtomicVertex> edge(int id, int left, int right) {
+        return new UndirectedEdge<>(id, new AtomicVertex(left), new AtomicVertex(right));
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        EdgeLabeling<AtomicVertex> labeling = new EdgeLabeling<>();
+        labeling.put(edge(1, 1, 2), 3);
+        labeling.put(edge(100, 2, 3), 5);
+        labeling.putIfAbsent(edge(1, 1, 2), 7);
+        assertEquals(2, labeling.size());
+        assertEquals(3, labeling.get(edge(1, 1, 2)));
+        assertEquals(5, labeling.get(edge(100, 2, 3)));
+        assertFalse(labeling.contains(edge(99, 2, 3)));
+        labeling.remove(edge(1, 1, 2));
+        assertFalse(labeling.contains(edge(1, 1, 2)));
+        assertEquals(1, labeling.size());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMissingLabel() {
+        new EdgeLabeling<AtomicVertex>().get(edge(0, 1, 2));
+    }
+
+    @Test
+    public void testMapView() {
+        EdgeLabeling<AtomicVertex> labeling = new EdgeLabeling<>();
+        Map<UndirectedEdge<AtomicVertex>, Integer> view = labeling.asMap();
+        Map<UndirectedEdge<AtomicVertex>, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 40; i += 3) {
+            labeling.put(edge(i, i, i + 1), i / 2);
+            expected.put(edge(i, i, i + 1), i / 2);
+        }
+        labeling.remove(edge(9, 9, 10));
+        expected.remove(edge(9, 9, 10));
+        assertEquals(expected, view);
+        assertNull(view.get(edge(9, 9, 10)));
+        assertTrue(view.containsKey(edge(12, 12, 13)));
+    }
+
+}
@@ -0,0 +1,47 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class FeoProvanPortfolioTest {
+
+    private FeoProvanPortfolio createPortfolio(int[][] data) {
+        return new FeoProvanPortfolio(AtomicPlaneGraph.readAdjacencyList(data),
+                FeoProvan.StartVertexStrategy.RANDOM,
+                FeoProvan.TransformSelectionStrategy.RANDOM, FeoProvan.Engine.WORKLIST,
+                4);
+    }
+
+    @Test
+    public void testShortestOfAllRuns() {
+        FeoProvanPortfolio portfolio = createPortfolio(GraphData.ICOSAHEDRON);
+        List<String> best = portfolio.run(20, 60000, 0);
+        assertEquals(20, portfolio.getCompletedRuns());
+        assertFalse(best.isEmpty());
+        assertTrue(best.get(best.size() - 1)
+                       .startsWith("P"));
+    }
+
+    @Test
+    public void testStopAtLowerBound() {
+        FeoProvanPortfolio portfolio = createPortfolio(GraphData.DODECAHEDRON);
+        List<String> best = portfolio.run(1000, 60000, Integer.MAX_VALUE);
+        assertFalse(best.isEmpty());
+        assertTrue(portfolio.getCompletedRuns() <= 4);
+    }
+
+    @Test
+    public void testExhaustedBudget() {
+        FeoProvanPortfolio portfolio = createPortfolio(GraphData.ICOSAHEDRON);
+        assertNull(portfolio.run(1000, 0, 0));
+        assertEquals(0, portfolio.getCompletedRuns());
+    }
+
+}
@@ -0,0 +1,78 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class FeoProvanTest {
+
+    private static final int[][][] GRAPHS = { GraphData.K4, GraphData.CUBE,
+            GraphData.OCTAHEDRON, GraphData.DODECAHEDRON, GraphData.ICOSAHEDRON };
+
+    @Test
+    public void testWorklistEngine() {
+        for (int[][] data : GRAPHS) {
+            AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(data);
+            for (FeoProvan.TransformSelectionStrategy strategy : FeoProvan.TransformSelectionStrategy.values()) {
+                FeoProvan fp = new FeoProvan(g, FeoProvan.StartVertexStrategy.MINIMUM,
+                        strategy, FeoProvan.Engine.WORKLIST);
+                List<String> sequence = fp.run(false);
+                assertFalse(fp.hasNextStep());
+                assertFalse(sequence.isEmpty());
+                assertTrue(sequence.stream()
+                                   .allMatch(step -> step.startsWith("P")));
+                assertEquals(100, fp.getProgress());
+            }
+        }
+    }
+
+    @Test
+    public void testWorklistEngineMatchesRescan() {
+        for (int[][] data : GRAPHS) {
+            AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(data);
+            for (FeoProvan.TransformSelectionStrategy strategy : FeoProvan.TransformSelectionStrategy.values()) {
+                if (strategy == FeoProvan.TransformSelectionStrategy.RANDOM) {
+                    continue;
+                }
+                List<String> rescan = new FeoProvan(g, FeoProvan.StartVertexStrategy.MINIMUM,
+                        strategy, FeoProvan.Engine.RESCAN).run(false);
+                List<String> worklist = new FeoProvan(g, FeoProvan.StartVertexStrategy.MINIMUM,
+                        strategy, FeoProvan.Engine.WORKLIST).run(false);
+                assertEquals(strategy.toString(), rescan, worklist);
+            }
+        }
+    }
+
+    @Test
+    public void testWorklistEngineAfterReset() {
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(GraphData.ICOSAHEDRON);
+        FeoProvan fp = new FeoProvan(g, FeoProvan.StartVertexStrategy.MINIMUM,
+                FeoProvan.TransformSelectionStrategy.MAXLABEL, FeoProvan.Engine.WORKLIST);
+        List<String> first = fp.run(false);
+        fp.reset();
+        assertEquals(first, fp.run(false));
+    }
+
+    @Test
+    public void testEdgeLabelsOfCube() {
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE);
+        FeoProvan fp = new FeoProvan(g);
+        Map<UndirectedEdge<AtomicVertex>, Integer> labels = fp.getEdgeLabels();
+        assertEquals(g.edges(), labels.keySet());
+        // 3 edges at the start vertex, 6 further edges on its faces, 3 at the
+        // opposite vertex
+        Map<Integer, Integer> histogram = new TreeMap<>();
+        labels.values()
+              .forEach(l -> histogram.merge(l, 1, Integer::sum));
+        assertEquals("{1=3, 2=6, 3=3}", histogram.toString());
+        assertTrue(fp.getLabelingTime() >= 0);
+    }
+
+}
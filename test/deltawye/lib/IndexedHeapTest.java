@@ -0,0 +1,91 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class IndexedHeapTest {
+
+    @Test
+    public void testPollInOrder() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>(Comparator.naturalOrder());
+        for (int i : new int[] { 5, 3, 8, 1, 9, 2 }) {
+            heap.add(i);
+        }
+        assertEquals(6, heap.size());
+        assertEquals(1, (int) heap.peek());
+        assertTrue(heap.remove(Integer.valueOf(2)));
+        assertFalse(heap.remove(Integer.valueOf(2)));
+        assertEquals(1, (int) heap.poll());
+        assertEquals(3, (int) heap.poll());
+        assertEquals(5, (int) heap.poll());
+        assertEquals(8, (int) heap.poll());
+        assertEquals(9, (int) heap.poll());
+        assertTrue(heap.isEmpty());
+        assertNull(heap.poll());
+    }
+
+    @Test
+    public void testReplace() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>(Comparator.naturalOrder());
+        for (int i = 10; i < 20; i++) {
+            heap.add(i);
+        }
+        heap.replace(17, 1); // decrease key
+        assertEquals(1, (int) heap.peek());
+        heap.replace(1, 30); // increase key
+        assertEquals(10, (int) heap.peek());
+        assertTrue(heap.contains(30));
+        assertFalse(heap.contains(17));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddDuplicate() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>(Comparator.naturalOrder());
+        heap.add(1);
+        heap.add(1);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        IndexedHeap<Integer> heap = new IndexedHeap<>(Comparator.reverseOrder());
+        PriorityQueue<Integer> expected = new PriorityQueue<>(Comparator.reverseOrder());
+        List<Integer> present = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 && !present.isEmpty()) {
+                Integer e = present.remove(random.nextInt(present.size()));
+                heap.remove(e);
+                expected.remove(e);
+            } else if (op == 1 && !present.isEmpty()) {
+                Integer e = present.remove(random.nextInt(present.size()));
+                Integer f = 10000 + i;
+                heap.replace(e, f);
+                expected.remove(e);
+                expected.add(f);
+                present.add(f);
+            } else {
+                heap.add(i);
+                expected.add(i);
+                present.add(i);
+            }
+            assertEquals(expected.size(), heap.size());
+            assertEquals(expected.peek(), heap.peek());
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.poll(), heap.poll());
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class IntTableTest {
+
+    @Test
+    public void testDenseAndSparse() {
+        int[] limit = { 20 };
+        IntTable table = new IntTable(() -> limit[0]);
+        table.set(5, 7);
+        table.set(2000000000, 3);
+        table.set(50, 4);
+        assertEquals(7, table.get(5));
+        assertEquals(3, table.get(2000000000));
+        assertEquals(4, table.get(50));
+        assertEquals(0, table.get(6));
+        assertEquals(0, table.get(-1));
+        // raising the limit moves fitting sparse values into the array
+        limit[0] = 100;
+        table.set(30, 1);
+        assertEquals(4, table.get(50));
+        assertEquals(1, table.get(30));
+        table.set(2000000000, 0);
+        assertEquals(0, table.get(2000000000));
+        table.clear();
+        assertEquals(0, table.get(5));
+        assertEquals(0, table.get(50));
+    }
+
+}
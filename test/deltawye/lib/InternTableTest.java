@@ -0,0 +1,49 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class InternTableTest {
+
+    @Test
+    public void testIntern() {
+        InternTable<AtomicVertex> table = new InternTable<>();
+        AtomicVertex v = table.intern(3, AtomicVertex::new);
+        assertEquals(new AtomicVertex(3), v);
+        assertSame(v, table.intern(3, AtomicVertex::new));
+        assertSame(v, table.get(3));
+        assertNull(table.get(4));
+        table.remove(3);
+        assertNull(table.get(3));
+        assertEquals(0, table.size());
+        table.remove(2000000000);
+    }
+
+    @Test
+    public void testSparseIDs() {
+        InternTable<AtomicVertex> table = new InternTable<>();
+        int[] ids = { 2000000000, Integer.MAX_VALUE, 100, 40 };
+        for (int id : ids) {
+            table.put(id, new AtomicVertex(id));
+        }
+        // fill the dense part until the sparse IDs below 100 move into it
+        for (int id = 0; id < 60; id++) {
+            table.intern(id, AtomicVertex::new);
+        }
+        for (int id : ids) {
+            assertEquals(id, table.get(id)
+                                  .getID());
+        }
+        for (int id = 0; id < 60; id++) {
+            assertEquals(id, table.get(id)
+                                  .getID());
+        }
+        assertNull(table.get(99));
+        assertNull(table.get(-1));
+    }
+
+}
@@ -1,6 +1,12 @@
 package deltawye.lib;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
@@ -21,6 +27,13 @@ public class MedialGraphTest {
         return AtomicPlaneGraph.readAdjacencyList(GraphData.K4);
     }
 
+    private static List<Integer> innerFaceCounts(MedialGraph m) {
+        return m.lenses()
+                .stream()
+                .map(Lens::numberOfInnerFaces)
+                .collect(Collectors.toList());
+    }
+
     @Test
     public void testLoopGraph() {
         AtomicPlaneGraph lg = AtomicPlaneGraph.readIncidenceList(
@@ -72,4 +85,98 @@ public class MedialGraphTest {
                            .size());
     }
 
+    @Test
+    public void testLensView() {
+        MedialGraph m = MedialGraph.fromAtomicPlaneGraph(
+                AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE));
+        for (Lens lens : m.lenses()) {
+            Set<Circuit<MedialVertex>> innerFaces = lens.innerFaces();
+            assertEquals(lens.faces()
+                             .size() - 1,
+                    innerFaces.size());
+            assertEquals(innerFaces.size(), lens.numberOfInnerFaces());
+            assertTrue(innerFaces.containsAll(lens.boundaryFaces()));
+            assertTrue(lens.vertices()
+                           .stream()
+                           .allMatch(lens::contains));
+            assertEquals(lens.order(), lens.vertices()
+                                           .size());
+            assertTrue(lens.contains(lens.getSouthPole()));
+            assertTrue(lens.isBoundaryVertex(lens.getNorthPole()));
+        }
+    }
+
+    @Test
+    public void testParallelLenses() {
+        for (int[][] data : new int[][][] { GraphData.DODECAHEDRON,
+                GraphData.ICOSAHEDRON }) {
+            AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(data);
+            MedialGraph sequential = MedialGraph.fromAtomicPlaneGraph(g);
+            sequential.setParallelThreshold(Integer.MAX_VALUE);
+            MedialGraph parallel = MedialGraph.fromAtomicPlaneGraph(g);
+            parallel.setParallelThreshold(0);
+            assertEquals(sequential.lenses(), parallel.lenses());
+        }
+    }
+
+    @Test
+    public void testMinimalLenses() {
+        for (int[][] data : new int[][][] { GraphData.K4, GraphData.CUBE,
+                GraphData.OCTAHEDRON, GraphData.DODECAHEDRON, GraphData.ICOSAHEDRON }) {
+            MedialGraph m = MedialGraph.fromAtomicPlaneGraph(
+                    AtomicPlaneGraph.readAdjacencyList(data));
+            Set<Lens> minimalLenses = m.minimalLenses();
+            TreeSet<Lens> lenses = m.lenses();
+            int min = lenses.first()
+                            .numberOfInnerFaces();
+            assertEquals(lenses.stream()
+                               .filter(l -> l.numberOfInnerFaces() == min)
+                               .collect(Collectors.toSet()),
+                    minimalLenses);
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(GraphData.DODECAHEDRON);
+        MedialGraph m = MedialGraph.fromAtomicPlaneGraph(g);
+        int maxEdgeID = m.edges()
+                         .stream()
+                         .mapToInt(UndirectedEdge::getID)
+                         .max()
+                         .getAsInt();
+        while (!g.isK4()) {
+            Circuit<MedialVertex> triangle = m.lenses()
+                                              .first()
+                                              .boundaryFaces()
+                                              .stream()
+                                              .filter(Circuit::isTriangle)
+                                              .findFirst()
+                                              .get();
+            g.startRecordingChanges();
+            if (m.isUnmedialVertex(triangle)) {
+                g.reduceOmega(m.toUnmedialVertex(triangle));
+            } else {
+                g.reduceEta(g.getFace(m.toUnmedialFace(triangle)));
+            }
+            m.update(g, g.stopRecordingChanges());
+            MedialGraph fresh = MedialGraph.fromAtomicPlaneGraph(g);
+            assertTrue(m.isValid());
+            assertEquals(fresh.vertices(), m.vertices());
+            assertEquals(fresh.size(), m.size());
+            assertEquals(fresh.numberOfFaces(), m.numberOfFaces());
+            assertEquals(fresh.geodesics()
+                              .size(),
+                    m.geodesics()
+                     .size());
+            assertEquals(new GeodesicLabeling(m).circuits(), m.geodesics());
+            assertEquals(m.order(), m.numberOfInternedVertices());
+            // removed medial edge IDs are reused
+            assertTrue(m.edges()
+                        .stream()
+                        .allMatch(e -> e.getID() <= maxEdgeID));
+            assertEquals(innerFaceCounts(fresh), innerFaceCounts(m));
+        }
+    }
+
 }
@@ -0,0 +1,88 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PersistentIntMapTest {
+
+    private static List<Integer> values(PersistentIntMap<Integer> map) {
+        List<Integer> values = new ArrayList<>();
+        map.forEach(values::add);
+        return values;
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        int[] keys = { 5, 0, 2000000000, -1, 40, Integer.MIN_VALUE };
+        for (int key : keys) {
+            assertNull(map.put(key, key));
+        }
+        assertEquals(keys.length, map.size());
+        assertEquals(40, (int) map.put(40, 41));
+        assertEquals(41, (int) map.get(40));
+        assertNull(map.get(6));
+        assertEquals(Arrays.asList(0, 5, 41, 2000000000, Integer.MIN_VALUE, -1), values(map));
+        assertEquals(-1, (int) map.remove(-1));
+        assertNull(map.remove(-1));
+        assertNull(map.remove(7));
+        assertEquals(keys.length - 1, map.size());
+    }
+
+    @Test
+    public void testSnapshotIndependence() {
+        Random random = new Random(42);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        List<TreeMap<Integer, Integer>> expectedSnapshots = new ArrayList<>();
+        List<PersistentIntMap<Integer>> snapshots = new ArrayList<>();
+        for (int step = 0; step < 3000; step++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, step), map.put(key, step));
+            }
+            if (step % 500 == 0) {
+                expectedSnapshots.add(new TreeMap<>(expected));
+                snapshots.add(map.snapshot());
+            }
+        }
+        assertEquals(new ArrayList<>(expected.values()), values(map));
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(new ArrayList<>(expectedSnapshots.get(i)
+                                                          .values()),
+                    values(snapshots.get(i)));
+            assertEquals(expectedSnapshots.get(i)
+                                          .size(),
+                    snapshots.get(i)
+                             .size());
+        }
+    }
+
+    @Test
+    public void testSharedNodes() {
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        for (int key = 0; key < 32 * 32; key++) {
+            map.put(key, key);
+        }
+        assertEquals(33, map.nodeCount());
+        PersistentIntMap<Integer> snapshot = map.snapshot();
+        assertEquals(33, snapshot.nodesSharedWith(map));
+        snapshot.put(3, -3);
+        assertEquals(31, snapshot.nodesSharedWith(map));
+        map.put(100000, 0);
+        assertEquals(31, snapshot.nodesSharedWith(map));
+        assertEquals(3, (int) map.get(3));
+    }
+
+}
@@ -0,0 +1,46 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PersistentRotationSystemTest {
+
+    @Test
+    public void testSnapshotIndependence() {
+        AtomicPlaneGraph g = new AtomicPlaneGraph(
+                AtomicPlaneGraph.readAdjacencyList(GraphData.DODECAHEDRON),
+                PlaneGraph.Backend.PERSISTENT);
+        Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> before = g.getIncidenceMap();
+        int faces = g.numberOfFaces();
+        AtomicPlaneGraph s = g.snapshot();
+        assertEquals(PlaneGraph.Backend.PERSISTENT, s.getBackend());
+        s.reduceOmega(new AtomicVertex(0));
+        assertFalse(s.vertices()
+                     .contains(new AtomicVertex(0)));
+        assertTrue(g.vertices()
+                    .contains(new AtomicVertex(0)));
+        assertEquals(before, g.getIncidenceMap());
+        assertEquals(faces, g.numberOfFaces());
+
+        // branch twice from the same state
+        AtomicPlaneGraph t = g.snapshot();
+        AtomicPlaneGraph u = g.snapshot();
+        t.removeEdge(t.edges()
+                      .iterator()
+                      .next());
+        assertNotEquals(t.getIncidenceMap(), u.getIncidenceMap());
+        assertEquals(before, u.getIncidenceMap());
+        assertEquals(faces - 1, t.numberOfFaces());
+        assertEquals(faces, u.numberOfFaces());
+        assertFalse(new FeoProvan(u).run(false)
+                                    .isEmpty());
+    }
+
+}
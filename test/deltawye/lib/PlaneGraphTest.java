@@ -3,8 +3,17 @@ package deltawye.lib;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -118,4 +127,280 @@ public class PlaneGraphTest {
         assertEquals(3, k4.numberOfFaces());
     }
 
+    @Test
+    public void testFacesAfterTransformations() {
+        PlaneGraph<AtomicVertex> cube = createPlaneCube();
+        assertEquals(6, cube.numberOfFaces());
+        Circuit<AtomicVertex> face = new ArrayList<>(cube.faces()).get(0);
+        cube.reduceWyeDelta(face.getStartVertex());
+        Circuit<AtomicVertex> delta = cube.getDeltaFaces()
+                                          .findFirst()
+                                          .get();
+        cube.reduceDeltaWye(delta, new AtomicVertex(cube.getUnusedVertexID()));
+        PlaneGraph<AtomicVertex> fresh = new PlaneGraph<>(cube.getIncidenceMap());
+        assertEquals(fresh.faces(), cube.faces());
+        assertEquals(fresh.edges()
+                          .size(), cube.size());
+        assertEquals(fresh.vertices()
+                          .size(), cube.order());
+        for (EdgeTail<AtomicVertex> e : cube.edgeTails()) {
+            assertTrue(cube.getFace(e)
+                           .edges()
+                           .contains(e));
+        }
+    }
+
+    @Test
+    public void testFaceWalking() {
+        AtomicPlaneGraph omegaCube = AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE);
+        omegaCube.reduceOmega(new AtomicVertex(1));
+        List<AtomicPlaneGraph> graphs = Stream.of(
+                AtomicPlaneGraph.readAdjacencyList(GraphData.K4),
+                AtomicPlaneGraph.readAdjacencyList(GraphData.DODECAHEDRON),
+                AtomicPlaneGraph.readIncidenceList(GraphData.DOUBLELOOP_INCIDENCE),
+                AtomicPlaneGraph.readIncidenceList(new int[][] { { 0, 0, 1 }, { 1, 1, 0, 2 },
+                        { 2, 2, 3, 3 } }),
+                omegaCube)
+                                              .collect(Collectors.toList());
+        for (AtomicPlaneGraph g : graphs) {
+            for (EdgeTail<AtomicVertex> t : g.edgeTails()) {
+                Circuit<AtomicVertex> face = g.getFace(t);
+                List<EdgeTail<AtomicVertex>> walked = new ArrayList<>();
+                Iterator<EdgeTail<AtomicVertex>> it = g.faceIterator(t);
+                while (it.hasNext()) {
+                    walked.add(it.next());
+                }
+                assertEquals(t, walked.get(0));
+                assertEquals(face, new Circuit<>(walked));
+                assertEquals(face.length(), g.faceLength(t));
+                assertTrue(g.faceDegreeAtMost(t, face.length()));
+                assertFalse(g.faceDegreeAtMost(t, face.length() - 1));
+                assertEquals(face.isLoop(), g.isEmptyLoop(t));
+                assertEquals(face.isDigon(), g.isEmptyDigon(t));
+                assertEquals(face.isTriangle(), g.isEmptyTriangle(t));
+                assertEquals(g.canReduceDeltaWye(face), g.canReduceDeltaWye(t));
+            }
+        }
+    }
+
+    @Test
+    public void testRollback() {
+        for (PlaneGraph.Backend backend : PlaneGraph.Backend.values()) {
+            PlaneGraph<AtomicVertex> cube = new AtomicPlaneGraph(
+                    AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE), backend);
+            Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> original = cube.getIncidenceMap();
+            Set<Circuit<AtomicVertex>> originalFaces = new HashSet<>(cube.faces());
+            PlaneGraph.Mark start = cube.mark();
+            Circuit<AtomicVertex> face = new ArrayList<>(cube.faces()).get(0);
+            cube.reduceOmega(face.getStartVertex());
+            PlaneGraph.Mark middle = cube.mark();
+            Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> afterOmega = cube.getIncidenceMap();
+            int unusedVertexID = cube.getUnusedVertexID();
+            Circuit<AtomicVertex> delta = cube.getDeltaFaces()
+                                              .findFirst()
+                                              .get();
+            cube.reduceEta(delta, new AtomicVertex(unusedVertexID));
+            cube.rollback(middle);
+            assertEquals(afterOmega, cube.getIncidenceMap());
+            assertEquals(unusedVertexID, cube.getUnusedVertexID());
+            cube.rollback(start);
+            assertEquals(original, cube.getIncidenceMap());
+            assertEquals(originalFaces, cube.faces());
+            assertEquals(8, cube.order());
+            assertEquals(12, cube.size());
+            assertTrue(cube.isValid());
+        }
+    }
+
+    @Test
+    public void testIDsOfRemovedElementsAreReused() {
+        AtomicPlaneGraph k4 = AtomicPlaneGraph.readAdjacencyList(GraphData.K4);
+        PlaneGraph.Mark start = k4.mark();
+        int unusedVertexID = k4.getUnusedVertexID();
+        int unusedEdgeID = k4.getUnusedEdgeID();
+        k4.rollback(start);
+        AtomicVertex wye = new AtomicVertex(4);
+        for (int i = 0; i < 100; i++) {
+            Set<UndirectedEdge<AtomicVertex>> delta = k4.reduceWyeDelta(wye);
+            EdgeTail<AtomicVertex> t = delta.iterator()
+                                            .next()
+                                            .leftTail();
+            Circuit<AtomicVertex> face = k4.getFace(t);
+            if (!delta.containsAll(face.edgesUndirected())) {
+                face = k4.getFace(t.otherSide());
+            }
+            wye = k4.reduceDeltaWye(face);
+            // the IDs do not grow with the number of transformations
+            for (AtomicVertex v : k4.vertices()) {
+                assertTrue(v.getID() <= unusedVertexID);
+            }
+            for (UndirectedEdge<AtomicVertex> e : k4.edges()) {
+                assertTrue(e.getID() < unusedEdgeID + 3);
+            }
+        }
+        assertTrue(k4.isK4());
+        assertTrue(k4.isValid());
+        k4.rollback(start);
+        assertEquals(unusedVertexID, k4.getUnusedVertexID());
+        assertEquals(unusedEdgeID, k4.getUnusedEdgeID());
+        UndirectedEdge<AtomicVertex> removed = k4.edges()
+                                                 .iterator()
+                                                 .next();
+        k4.removeEdge(removed);
+        assertEquals(removed.getID(), k4.getUnusedEdgeID());
+    }
+
+    @Test
+    public void testRollbackAfterJournalCompaction() {
+        for (PlaneGraph.Backend backend : PlaneGraph.Backend.values()) {
+            PlaneGraph<AtomicVertex> cube = new AtomicPlaneGraph(
+                    AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE), backend);
+            Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> original = cube.getIncidenceMap();
+            Set<Circuit<AtomicVertex>> originalFaces = new HashSet<>(cube.faces());
+            PlaneGraph.Mark start = cube.mark();
+            PlaneGraph.Mark middle = null;
+            int rounds = PlaneGraph.JOURNAL_LIMIT_FACTOR * (8 + 24) + PlaneGraph.JOURNAL_LIMIT_MIN;
+            for (int i = 0; i < rounds; i++) {
+                if (i == 1) {
+                    middle = cube.mark();
+                }
+                EdgeTail<AtomicVertex> rightLeg = cube.incidentEdgeTails(new AtomicVertex(i % 8))
+                                                      .get(i % 3);
+                EdgeTail<AtomicVertex> leftLeg = cube.nextEdge(rightLeg.otherSide(),
+                        RotationDirection.CLOCKWISE);
+                cube.removeEdge(cube.closeTriangle(leftLeg, rightLeg));
+            }
+            assertEquals(original, cube.getIncidenceMap());
+            try {
+                cube.rollback(middle);
+                fail("Compacted mark rolled back.");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            EdgeTail<AtomicVertex> rightLeg = cube.incidentEdgeTails(new AtomicVertex(1))
+                                                  .get(0);
+            cube.closeTriangle(cube.nextEdge(rightLeg.otherSide(), RotationDirection.CLOCKWISE),
+                    rightLeg);
+            cube.removeEdge(cube.edges()
+                                .iterator()
+                                .next());
+            cube.rollback(start);
+            assertEquals(original, cube.getIncidenceMap());
+            assertEquals(originalFaces, cube.faces());
+            assertEquals(8, cube.order());
+            assertEquals(12, cube.size());
+            assertTrue(cube.isValid());
+        }
+    }
+
+    @Test
+    public void testSnapshotSharesFaces() {
+        for (PlaneGraph.Backend backend : PlaneGraph.Backend.values()) {
+            PlaneGraph<AtomicVertex> cube = new AtomicPlaneGraph(
+                    AtomicPlaneGraph.readAdjacencyList(GraphData.CUBE), backend);
+            Set<Circuit<AtomicVertex>> traced = Collections.newSetFromMap(new IdentityHashMap<>());
+            traced.addAll(cube.faces());
+            PlaneGraph<AtomicVertex> snapshot = cube.snapshot();
+            for (Circuit<AtomicVertex> face : snapshot.faces()) {
+                assertTrue(traced.contains(face));
+            }
+            snapshot.removeEdge(snapshot.edges()
+                                        .iterator()
+                                        .next());
+            assertEquals(5, snapshot.numberOfFaces());
+            assertEquals(6, cube.numberOfFaces());
+            for (Circuit<AtomicVertex> face : cube.faces()) {
+                assertTrue(traced.contains(face));
+            }
+            cube.reduceOmega(new AtomicVertex(0));
+            assertEquals(5, snapshot.numberOfFaces());
+            assertTrue(snapshot.isValid());
+            assertTrue(cube.isValid());
+        }
+    }
+
+    @Test
+    public void testSnapshotSharesFaceRegistryStructurally() {
+        // bipyramid over a cycle of length n: all faces are triangles
+        int n = 400;
+        int[][] bipyramid = new int[n + 2][];
+        bipyramid[0] = new int[n + 1];
+        bipyramid[n + 1] = new int[n + 1];
+        bipyramid[n + 1][0] = n + 1;
+        for (int i = 1; i <= n; i++) {
+            bipyramid[0][i] = i;
+            bipyramid[n + 1][i] = n + 1 - i;
+            bipyramid[i] = new int[] { i, 0, (i + n - 2) % n + 1, n + 1, i % n + 1 };
+        }
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(bipyramid);
+        assertEquals(2 * n, g.numberOfFaces());
+        Map<EdgeTail<AtomicVertex>, Circuit<AtomicVertex>> traced = new HashMap<>();
+        for (EdgeTail<AtomicVertex> tail : g.edgeTails()) {
+            traced.put(tail, g.getFace(tail));
+        }
+        PersistentIntMap<Circuit<AtomicVertex>> registry = g.faceRegistry();
+        int nodes = registry.nodeCount();
+        // a second snapshot keeps the nodes of the parent for comparison
+        PersistentIntMap<Circuit<AtomicVertex>> frozen = g.snapshot()
+                                                          .faceRegistry();
+        AtomicPlaneGraph s = g.snapshot();
+        assertEquals(nodes, s.faceRegistry()
+                             .nodesSharedWith(registry));
+        for (int i : new int[] { 1, n / 2 }) {
+            EdgeTail<AtomicVertex> spoke = s.incidentEdgeTails(new AtomicVertex(0))
+                                            .get(i - 1);
+            s.reduceDeltaWye(s.getFace(spoke));
+        }
+        assertEquals(2 * n - 2, s.numberOfFaces());
+        // the parent's registry objects are untouched
+        assertTrue(registry == g.faceRegistry());
+        assertEquals(nodes, registry.nodesSharedWith(frozen));
+        assertEquals(2 * n, g.numberOfFaces());
+        for (EdgeTail<AtomicVertex> tail : g.edgeTails()) {
+            assertTrue(traced.get(tail) == g.getFace(tail));
+        }
+        // the snapshot copied only the paths to the faces it changed
+        int copied = s.faceRegistry()
+                      .nodeCount()
+                - s.faceRegistry()
+                   .nodesSharedWith(registry);
+        assertTrue(copied < nodes / 4);
+    }
+
+    @Test
+    public void testRollbackInvalidatesLaterMarks() {
+        PlaneGraph<AtomicVertex> cube = createPlaneCube();
+        Map<AtomicVertex, RotationList<EdgeTail<AtomicVertex>>> original = cube.getIncidenceMap();
+        PlaneGraph.Mark start = cube.mark();
+        List<UndirectedEdge<AtomicVertex>> added = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            EdgeTail<AtomicVertex> rightLeg = cube.incidentEdgeTails(new AtomicVertex(i))
+                                                  .get(0);
+            added.add(cube.closeTriangle(
+                    cube.nextEdge(rightLeg.otherSide(), RotationDirection.CLOCKWISE),
+                    rightLeg));
+        }
+        PlaneGraph.Mark late = cube.mark();
+        cube.removeEdge(added.get(2));
+        cube.removeEdge(added.get(1));
+        cube.removeEdge(added.get(0));
+        cube.rollback(start);
+        // more changes than before, so the journal is longer than at the late mark
+        for (int i = 4; i < 8; i++) {
+            EdgeTail<AtomicVertex> rightLeg = cube.incidentEdgeTails(new AtomicVertex(i))
+                                                  .get(0);
+            cube.closeTriangle(cube.nextEdge(rightLeg.otherSide(), RotationDirection.CLOCKWISE),
+                    rightLeg);
+        }
+        try {
+            cube.rollback(late);
+            fail("Mark taken after the rollback target was accepted.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        cube.rollback(start);
+        assertEquals(original, cube.getIncidenceMap());
+        assertTrue(cube.isValid());
+    }
+
 }
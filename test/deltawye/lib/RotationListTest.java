@@ -0,0 +1,164 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class RotationListTest {
+
+    /**
+     * Element that counts how often it is hashed.
+     */
+    private static final class Counted {
+
+        static int hashes = 0;
+
+        final int id;
+
+        Counted(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            hashes++;
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Counted && ((Counted) obj).id == id;
+        }
+
+    }
+
+    @Test
+    public void testRotation() {
+        RotationList<Integer> list = new RotationList<>(Arrays.asList(1, 2, 3, 4));
+        assertEquals(2, (int) list.nextAfter(1));
+        assertEquals(1, (int) list.nextAfter(4));
+        assertEquals(4, (int) list.prevBefore(1));
+        assertEquals(3, (int) list.rotateBy(1, 6));
+        assertEquals(4, (int) list.getMod(-1));
+        assertEquals(3, (int) list.rotateAt(4, RotationDirection.COUNTERCLOCKWISE));
+        assertTrue(list.addNextTo(1, 0, RotationDirection.COUNTERCLOCKWISE));
+        assertTrue(list.addNextTo(4, 5, RotationDirection.CLOCKWISE));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), list);
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        RotationList<Integer> list = new RotationList<>();
+        for (int i = 0; i < 20; i++) {
+            list.add(i);
+        }
+        list.add(list.indexOf(3), 100);
+        list.add(list.indexOf(17) + 1, 200);
+        assertEquals(100, (int) list.nextAfter(2));
+        assertEquals(18, (int) list.nextAfter(200));
+        assertTrue(list.remove(Integer.valueOf(0)));
+        assertEquals(1, (int) list.getFirst());
+        assertEquals(19, (int) list.getLast());
+        assertEquals(19, (int) list.prevBefore(1));
+        assertFalse(list.contains(0));
+        assertEquals(-1, list.indexOf(0));
+    }
+
+    @Test
+    public void testDuplicates() {
+        RotationList<Integer> list = new RotationList<>(Arrays.asList(1, 2, 1, 3));
+        assertEquals(0, list.indexOf(1));
+        assertEquals(2, list.lastIndexOf(1));
+        assertEquals(2, (int) list.nextAfter(1));
+        list.remove(2);
+        assertEquals(0, list.lastIndexOf(1));
+        assertEquals(3, (int) list.nextAfter(2));
+    }
+
+    @Test
+    public void testAgainstLinkedList() {
+        Random random = new Random(42);
+        List<Integer> expected = new LinkedList<>();
+        RotationList<Integer> actual = new RotationList<>();
+        for (int step = 0; step < 2000; step++) {
+            int op = random.nextInt(4);
+            if (op < 2 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                int element = random.nextInt(1000);
+                expected.add(index, element);
+                actual.add(index, element);
+            } else if (op == 2) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            } else {
+                Integer element = random.nextInt(1000);
+                assertEquals(expected.remove(element), actual.remove(element));
+            }
+            assertEquals(expected, actual);
+            Integer probe = random.nextInt(1000);
+            assertEquals(expected.indexOf(probe), actual.indexOf(probe));
+            assertEquals(expected.lastIndexOf(probe), actual.lastIndexOf(probe));
+        }
+    }
+
+    @Test
+    public void testAcrossIndexThreshold() {
+        int n = 2 * RotationList.INDEX_THRESHOLD + 3;
+        RotationList<Integer> list = new RotationList<>();
+        for (int i = 0; i < n; i++) {
+            list.addFirst(i);
+            for (int j = 0; j <= i; j++) {
+                assertEquals(i - j, list.indexOf(j));
+                assertEquals((Integer) (j == i ? 0 : j + 1), list.prevBefore(j));
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(list.remove((Integer) i));
+            assertEquals(-1, list.indexOf(i));
+            if (!list.isEmpty()) {
+                assertEquals((Integer) (n - 1), list.getFirst());
+                assertEquals(list.size() - 1, list.indexOf(i + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testConstantTimeEditsAtHub() {
+        // rotation at the hub of wheel-100
+        int degree = 100;
+        List<Counted> expected = new ArrayList<>();
+        for (int i = 0; i < degree; i++) {
+            expected.add(new Counted(i));
+        }
+        RotationList<Counted> hub = new RotationList<>(expected);
+        assertTrue(hub.contains(expected.get(0)));
+        for (int i = 0; i < degree; i++) {
+            Counted old = expected.get(i);
+            Counted replacement = new Counted(degree + i);
+            RotationDirection dir = i % 2 == 0 ? RotationDirection.CLOCKWISE
+                    : RotationDirection.COUNTERCLOCKWISE;
+            Counted.hashes = 0;
+            assertTrue(hub.addNextTo(old, replacement, dir));
+            assertTrue(hub.remove(old));
+            // one lookup and one index update per edit, whatever the position
+            assertEquals(4, Counted.hashes);
+            expected.set(i, replacement);
+            assertEquals(expected.get((i + 1) % degree), hub.nextAfter(replacement));
+            assertEquals(expected.get((i + degree - 1) % degree),
+                    hub.prevBefore(replacement));
+        }
+        assertEquals(expected, hub);
+        assertFalse(hub.addNextTo(new Counted(-1), new Counted(-2),
+                RotationDirection.CLOCKWISE));
+    }
+
+}
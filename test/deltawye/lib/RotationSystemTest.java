@@ -0,0 +1,128 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@SuppressWarnings("javadoc")
+@RunWith(Parameterized.class)
+public class RotationSystemTest {
+
+    @Parameters(name = "{0}")
+    public static Iterable<Object[]> backends() {
+        return Arrays.stream(PlaneGraph.Backend.values())
+                     .map(backend -> new Object[] { backend })
+                     .collect(Collectors.toList());
+    }
+
+    private final PlaneGraph.Backend backend;
+
+    public RotationSystemTest(PlaneGraph.Backend backend) {
+        this.backend = backend;
+    }
+
+    private AtomicPlaneGraph createGraph(int[][] adjacencyList) {
+        return new AtomicPlaneGraph(AtomicPlaneGraph.readAdjacencyList(adjacencyList),
+                backend);
+    }
+
+    @Test
+    public void testBackendConversion() {
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(GraphData.ICOSAHEDRON);
+        assertEquals(PlaneGraph.Backend.INCIDENCE_MAP, g.getBackend());
+        AtomicPlaneGraph h = new AtomicPlaneGraph(g, backend);
+        assertEquals(backend, h.getBackend());
+        assertEquals(backend, new AtomicPlaneGraph(h).getBackend());
+        assertEquals(backend, h.snapshot()
+                               .getBackend());
+        assertEquals(g.getIncidenceMap(), h.getIncidenceMap());
+        assertEquals(g.vertices(), h.vertices());
+        assertEquals(g.edges(), h.edges());
+        assertEquals(g.faces(), h.faces());
+        AtomicPlaneGraph back = new AtomicPlaneGraph(h, PlaneGraph.Backend.INCIDENCE_MAP);
+        assertEquals(PlaneGraph.Backend.INCIDENCE_MAP, back.getBackend());
+        assertEquals(g.getIncidenceMap(), back.getIncidenceMap());
+    }
+
+    @Test
+    public void testLoopGraph() {
+        AtomicPlaneGraph loopGraph = new AtomicPlaneGraph(
+                AtomicPlaneGraph.readIncidenceList(GraphData.DOUBLELOOP_INCIDENCE), backend);
+        assertEquals(1, loopGraph.order());
+        assertEquals(2, loopGraph.size());
+        assertEquals(3, loopGraph.numberOfFaces());
+        assertEquals(4, loopGraph.degree(new AtomicVertex(0)));
+    }
+
+    @Test
+    public void testManuallyReduceK4ToK1() {
+        AtomicPlaneGraph g = createGraph(GraphData.K4);
+        g.reduceOmega(new AtomicVertex(3));
+        g.reduceSeries(new AtomicVertex(4));
+        g.removeEdge(g.edges()
+                      .iterator()
+                      .next());
+        g.removeVertex(new AtomicVertex(2));
+        assertTrue(g.isK1());
+        assertEquals(1, g.numberOfFaces());
+        assertFalse(g.vertices()
+                     .contains(new AtomicVertex(2)));
+    }
+
+    @Test
+    public void testSameTransformationsAsIncidenceMap() {
+        AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(GraphData.ICOSAHEDRON);
+        AtomicPlaneGraph h = new AtomicPlaneGraph(g, backend);
+        List<String> expected = new FeoProvan(g).run(false);
+        List<String> actual = new FeoProvan(h).run(false);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testReduceWithAllAlgorithms() {
+        for (int[][] data : new int[][][] { GraphData.CUBE, GraphData.OCTAHEDRON,
+                GraphData.DODECAHEDRON }) {
+            assertFalse(new SteinitzGruenbaum(createGraph(data)).run(false)
+                                                                .isEmpty());
+            assertFalse(new TemperatureReduction(createGraph(data)).run(false)
+                                                                   .isEmpty());
+        }
+    }
+
+    @Test
+    public void testHighDegree() {
+        int n = 3 * RotationList.INDEX_THRESHOLD;
+        int[][] wheel = new int[n + 1][];
+        wheel[0] = new int[n + 1];
+        wheel[0][0] = 0;
+        for (int i = 1; i <= n; i++) {
+            wheel[0][i] = i;
+            wheel[i] = new int[] { i, 0, (i + n - 2) % n + 1, i % n + 1 };
+        }
+        AtomicPlaneGraph g = createGraph(wheel);
+        AtomicVertex center = new AtomicVertex(0);
+        assertEquals(n + 1, g.numberOfFaces());
+        assertEquals(n, g.degree(center));
+        for (int i = 1; i <= n; i++) {
+            assertEquals(new AtomicVertex(i % n + 1), g.nextVertex(center, new AtomicVertex(i)));
+        }
+        AtomicPlaneGraph h = new AtomicPlaneGraph(g, PlaneGraph.Backend.INCIDENCE_MAP);
+        for (int i = 1; i <= n; i += 2) {
+            g.reduceWyeDelta(new AtomicVertex(i));
+            h.reduceWyeDelta(new AtomicVertex(i));
+        }
+        assertEquals(h.getIncidenceMap(), g.getIncidenceMap());
+        assertEquals(h.faces(), g.faces());
+        assertTrue(g.isValid());
+    }
+
+}
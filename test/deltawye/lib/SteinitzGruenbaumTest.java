@@ -0,0 +1,76 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class SteinitzGruenbaumTest {
+
+    private static final int[][][] GRAPHS = { GraphData.K4, GraphData.CUBE,
+            GraphData.OCTAHEDRON, GraphData.DODECAHEDRON, GraphData.ICOSAHEDRON };
+
+    private static void assertCounts(Set<Lens> lenses) {
+        Map<Circuit<MedialVertex>, Integer> counts = SteinitzGruenbaum.countContainingLenses(
+                lenses);
+        Set<Circuit<MedialVertex>> triangles = lenses.stream()
+                                                     .flatMap(l -> l.boundaryFaces()
+                                                                    .stream())
+                                                     .filter(Circuit::isTriangle)
+                                                     .collect(Collectors.toSet());
+        assertEquals(triangles, counts.keySet());
+        for (Circuit<MedialVertex> f : triangles) {
+            long expected = lenses.stream()
+                                  .filter(l -> l.boundaryFaces()
+                                                .contains(f))
+                                  .count();
+            assertEquals(expected, (long) counts.get(f));
+        }
+    }
+
+    @Test
+    public void testCountContainingLenses() {
+        for (int[][] data : GRAPHS) {
+            AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(data);
+            MedialGraph m = MedialGraph.fromAtomicPlaneGraph(g);
+            while (!g.isK4()) {
+                assertCounts(m.lenses());
+                Set<Lens> minimalLenses = m.minimalLenses();
+                assertCounts(minimalLenses);
+                Map<Circuit<MedialVertex>, Integer> counts = SteinitzGruenbaum.countContainingLenses(
+                        minimalLenses);
+                Circuit<MedialVertex> triangle = counts.keySet()
+                                                       .iterator()
+                                                       .next();
+                g.startRecordingChanges();
+                if (m.isUnmedialVertex(triangle)) {
+                    g.reduceOmega(m.toUnmedialVertex(triangle));
+                } else {
+                    g.reduceEta(g.getFace(m.toUnmedialFace(triangle)));
+                }
+                m.update(g, g.stopRecordingChanges());
+            }
+        }
+    }
+
+    @Test
+    public void testAllStrategiesReachK4() {
+        for (int[][] data : GRAPHS) {
+            AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(data);
+            for (SteinitzGruenbaum.LensTriangleSelectionStrategy strategy : SteinitzGruenbaum.LensTriangleSelectionStrategy.values()) {
+                SteinitzGruenbaum sg = new SteinitzGruenbaum(g, strategy);
+                sg.run(false);
+                assertFalse(sg.hasNextStep());
+                assertEquals(100, sg.getProgress());
+            }
+            assertTrue(g.isValid());
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package deltawye.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TemperatureReductionTest {
+
+    private static final int[][][] GRAPHS = { GraphData.K4, GraphData.CUBE,
+            GraphData.OCTAHEDRON, GraphData.DODECAHEDRON, GraphData.ICOSAHEDRON };
+
+    @Test
+    public void testWorklistEngine() {
+        for (int[][] data : GRAPHS) {
+            AtomicPlaneGraph g = AtomicPlaneGraph.readAdjacencyList(data);
+            for (TemperatureReduction.Strategy strategy : TemperatureReduction.Strategy.values()) {
+                TemperatureReduction tr = new TemperatureReduction(g, strategy,
+                        TemperatureReduction.Engine.WORKLIST);
+                List<String> sequence = tr.run(false);
+                assertFalse(tr.hasNextStep());
+                assertTrue(sequence.stream()
+                                   .allMatch(step -> step.startsWith("Omega")
+                                           || step.startsWith("Eta")));
+                assertEquals(100, tr.getProgress());
+                tr.reset();
+                assertEquals(data != GraphData.K4, tr.hasNextStep());
+            }
+        }
+    }
+
+}
@@ -91,6 +91,19 @@ public class UndirectedEdgeTest {
         assertEquals(1, e(200, 200, 200).compareTo(e(20, 1, 1)));
     }
 
+    @Test
+    public void testTails() {
+        UndirectedEdge<AtomicVertex> e = e(7, 1, 2);
+        assertSame(e.leftTail(), e.leftTail());
+        assertSame(e.rightTail(), e.tail(EdgeTail.Side.RIGHT));
+        assertSame(e.rightTail(), e.leftTail()
+                                   .otherSide());
+        assertEquals(new EdgeTail<>(e, EdgeTail.Side.LEFT), e.leftTail());
+        assertEquals(new EdgeTail<>(e, EdgeTail.Side.LEFT).hashCode(), e.leftTail()
+                                                                         .hashCode());
+        assertNotEquals(e.leftTail(), e.rightTail());
+    }
+
     @Test
     public void testToString() {
         assertEquals("[e99]{2, 3}", e(99, 2, 3).toString());